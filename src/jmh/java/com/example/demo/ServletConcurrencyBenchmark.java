@@ -0,0 +1,157 @@
+package com.example.demo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.demo.model.Assignment;
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.AssignmentRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.JwtUtil;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Requests per second the whole application sustains on PLATFORM_THREADS Tomcat threads versus
+ * spring.threads.virtual.enabled=true, with four times as many concurrent clients as platform
+ * threads. Both are scaled down from Tomcat's default 200 threads so that clients, app and stub
+ * fit on a small machine; raise them together with -t and the constant.
+ *
+ * The app runs on the in-memory H2 profile. submit stores one solution per request (POST
+ * /assignments/submit); externalProxy calls GET /api/external/posts/resttemplate/user/{id},
+ * which reaches a local stub answering after UPSTREAM_LATENCY_MILLIS, with the response cache
+ * disabled so every request goes upstream. By Little's law the requests in flight are
+ * throughput x latency, so externalProxy is capped at 32 / 0.1 s = 320 ops/s on platform threads.
+ *
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ServletConcurrencyBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(128)
+public class ServletConcurrencyBenchmark {
+
+    private static final int PLATFORM_THREADS = 32;
+    private static final long UPSTREAM_LATENCY_MILLIS = 100;
+    private static final byte[] POSTS = "[{\"id\":1,\"title\":\"t\",\"body\":\"b\",\"userId\":1}]"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Param({ "false", "true" })
+    public boolean virtualThreads;
+
+    private HttpServer upstream;
+    private ExecutorService upstreamExecutor;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private String token;
+    private String submission;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        // The stub would otherwise close pooled connections beyond 200 idle ones under the client
+        System.setProperty("sun.net.httpserver.maxIdleConnections", "2000");
+        upstreamExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        upstream.createContext("/posts", exchange -> {
+            try {
+                Thread.sleep(UPSTREAM_LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, POSTS.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(POSTS);
+            }
+        });
+        upstream.setExecutor(upstreamExecutor);
+        upstream.start();
+
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("h2")
+                .run("--server.port=0",
+                        "--server.tomcat.threads.max=" + PLATFORM_THREADS,
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--logging.level.com.example.demo=WARN",
+                        "--logging.level.com.example.demo.security=WARN",
+                        "--logging.level.com.example.demo.service.ExternalApiService=WARN",
+                        "--external.api.base-url=http://localhost:" + upstream.getAddress().getPort(),
+                        "--external.api.cache.max-size=0",
+                        "--external.api.max-connections=1000",
+                        "--external.api.bulkhead.max-concurrent=1000");
+
+        User student = new User();
+        student.setUsername("bench-student");
+        student.setPassword("unused");
+        student.setEmail("bench@example.com");
+        student.setRole(Role.STUDENT);
+        student = context.getBean(UserRepository.class).save(student);
+        Assignment assignment = new Assignment();
+        assignment.setTitle("bench");
+        assignment.setQuestions(List.of("q1"));
+        assignment = context.getBean(AssignmentRepository.class).save(assignment);
+
+        token = context.getBean(JwtUtil.class).generateToken(student);
+        submission = "{\"assignmentId\":" + assignment.getId() + ",\"answers\":[\"a1\"]}";
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        context.close();
+        upstream.stop(0);
+        upstreamExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int submit() throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/assignments/submit"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(submission)));
+    }
+
+    @Benchmark
+    public int externalProxy() throws Exception {
+        long userId = ThreadLocalRandom.current().nextLong(1, 1_000);
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/external/posts/resttemplate/user/" + userId)));
+    }
+
+    private int send(HttpRequest.Builder request) throws Exception {
+        HttpResponse<Void> response = client.send(request.header("Authorization", "Bearer " + token).build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import com.example.demo.dto.ExternalDataDto;
+import com.sun.net.httpserver.HttpServer;
+
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Request throughput of the pooled clients from {@link RestTemplateConfig} against the
+ * previous bare RestTemplate (HttpURLConnection), with 16 concurrent callers hitting a
+ * local stub server that answers every GET with one small JSON post.
+ *
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ExternalApiClientBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(16)
+public class ExternalApiClientBenchmark {
+
+    private static final byte[] POST = "{\"id\":1,\"title\":\"t\",\"body\":\"b\",\"userId\":1}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private CloseableHttpClient httpClient;
+    private ConnectionProvider connectionProvider;
+    private RestTemplate pooledRestTemplate;
+    private RestTemplate bareRestTemplate;
+    private WebClient pooledWebClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Without TCP_NODELAY the stub's separate header/body writes hit delayed ACKs (~40 ms per call)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        serverExecutor = Executors.newFixedThreadPool(32);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.createContext("/posts", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, POST.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(POST);
+            }
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+        RestTemplateConfig config = new RestTemplateConfig(baseUrl, 5000, 2000, 100, 2000, 30, 300);
+        httpClient = config.externalApiHttpClient(config.externalApiConnectionManager());
+        pooledRestTemplate = config.restTemplate(httpClient);
+        connectionProvider = config.externalApiConnectionProvider();
+        pooledWebClient = config.webClient(connectionProvider);
+
+        bareRestTemplate = new RestTemplate();
+        bareRestTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory(baseUrl));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        httpClient.close();
+        connectionProvider.dispose();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public ExternalDataDto pooledRestTemplate() {
+        return pooledRestTemplate.getForObject("/posts/1", ExternalDataDto.class);
+    }
+
+    @Benchmark
+    public ExternalDataDto bareRestTemplate() {
+        return bareRestTemplate.getForObject("/posts/1", ExternalDataDto.class);
+    }
+
+    @Benchmark
+    public ExternalDataDto pooledWebClientBlocking() {
+        return pooledWebClient.get().uri("/posts/1").retrieve().bodyToMono(ExternalDataDto.class).block();
+    }
+}
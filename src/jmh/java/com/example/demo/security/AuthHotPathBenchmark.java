@@ -0,0 +1,129 @@
+package com.example.demo.security;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.model.UserDetailImpl;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.CachingUserDetailsService;
+import com.example.demo.service.UserDetailsServiceImpl;
+
+import ch.qos.logback.classic.Level;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+/**
+ * The code every authenticated request runs: issuing and checking a token, reading the
+ * principal's authorities and one full JwtAuthFilter pass (warm user-details cache, no-op
+ * FilterChain), with and without jwt.stateless-principal. Reported both as throughput and as
+ * sampled latency (p50/p90/p99/p99.9); the default jmh.args add the gc profiler for the
+ * allocation rate per operation and write target/jmh-result.json as the regression baseline.
+ * Logging is set to WARN so that appender cost does not hide the code's own cost.
+ *
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="AuthHotPathBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthHotPathBenchmark {
+
+    private static final String SECRET = "mysecretkeymysecretkeymysecretkey12";
+
+    private JwtUtil jwtUtil;
+    private User user;
+    private UserDetailImpl userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(Level.WARN);
+
+        jwtUtil = new JwtUtil(SECRET, 86_400_000L, new InMemoryTokenRevocationHook());
+        user = new User();
+        user.setId(1);
+        user.setUsername("student");
+        user.setRole(Role.STUDENT);
+        userDetails = new UserDetailImpl(user);
+        token = jwtUtil.generateToken(user);
+    }
+
+    @State(Scope.Benchmark)
+    public static class FilterState {
+
+        @Param({ "false", "true" })
+        public boolean statelessPrincipal;
+
+        private JwtAuthFilter jwtAuthFilter;
+        private final FilterChain filterChain = (request, response) -> { };
+
+        @Setup
+        public void setUp(AuthHotPathBenchmark benchmark) {
+            UserRepository userRepository = mock(UserRepository.class);
+            when(userRepository.findByUsername("student")).thenReturn(Optional.of(benchmark.user));
+            CachingUserDetailsService userDetailsService = new CachingUserDetailsService(
+                    new UserDetailsServiceImpl(userRepository), new InMemoryTokenRevocationHook(),
+                    new SimpleMeterRegistry(), 100, 300);
+            jwtAuthFilter = new JwtAuthFilter(benchmark.jwtUtil, userDetailsService, new SimpleMeterRegistry());
+            ReflectionTestUtils.setField(jwtAuthFilter, "statelessPrincipal", statelessPrincipal);
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtUtil.isTokenValid(token, userDetails);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return userDetails.getAuthorities();
+    }
+
+    @Benchmark
+    public Authentication filterPass(FilterState state, Blackhole blackhole) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/assignments/all");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            state.jwtAuthFilter.doFilterInternal(request, response, state.filterChain);
+            blackhole.consume(response);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
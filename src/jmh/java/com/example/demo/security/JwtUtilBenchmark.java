@@ -0,0 +1,78 @@
+package com.example.demo.security;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Token issue/verify throughput with the precomputed key and shared parser, against the
+ * previous implementation that derived the key and built a parser on every call.
+ *
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="JwtUtilBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "mysecretkeymysecretkeymysecretkey12";
+
+    private JwtUtil jwtUtil;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 86_400_000L, new InMemoryTokenRevocationHook());
+        user = new User();
+        user.setId(1);
+        user.setUsername("student");
+        user.setRole(Role.STUDENT);
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String issue() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return jwtUtil.parseClaims(token);
+    }
+
+    @Benchmark
+    public String issuePerCallKey() {
+        return Jwts.builder()
+                .setSubject(user.getUsername())
+                .claim("role", user.getRole().name())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public Claims verifyPerCallParser() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
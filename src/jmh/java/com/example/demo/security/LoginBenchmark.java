@@ -0,0 +1,86 @@
+package com.example.demo.security;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * Logins per second with 8 concurrent callers, the way the login endpoint sees a burst: the
+ * provider's full authenticate, with BCrypt run on the caller threads (direct) or on a bounded
+ * hashing pool of 2 threads (bounded, as configured in SecurityConfig). With upgrade=true every
+ * stored hash is one work factor below the configured one and the rehash is never saved, so each
+ * login goes through the best-effort upgrade path; under contention most logins skip it because
+ * hashes are queued.
+ *
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="LoginBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class LoginBenchmark {
+
+    private static final String PASSWORD = "password123";
+
+    @Param({ "10", "12" })
+    private int strength;
+
+    @Param({ "false", "true" })
+    private boolean upgrade;
+
+    private BoundedPasswordEncoder bounded;
+    private DaoAuthenticationProvider direct;
+    private DaoAuthenticationProvider boundedProvider;
+
+    @Setup
+    public void setUp() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(Level.WARN);
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        String hash = new BCryptPasswordEncoder(upgrade ? strength - 1 : strength).encode(PASSWORD);
+        UserDetails student = User.withUsername("student").password(hash).roles("STUDENT").build();
+        UserDetailsService userDetailsService = username -> student;
+        // Keeps the stored hash, so every login is offered the upgrade again
+        UserDetailsPasswordService keepHash = (user, newPassword) -> user;
+
+        bounded = new BoundedPasswordEncoder(bcrypt, 2, 64);
+        direct = new RehashingAuthenticationProvider(userDetailsService, bcrypt, keepHash);
+        boundedProvider = new RehashingAuthenticationProvider(userDetailsService, bounded, keepHash);
+    }
+
+    @TearDown
+    public void tearDown() {
+        bounded.shutdown();
+    }
+
+    @Benchmark
+    public Authentication directLogin() {
+        return direct.authenticate(new UsernamePasswordAuthenticationToken("student", PASSWORD));
+    }
+
+    @Benchmark
+    public Authentication boundedLogin() {
+        return boundedProvider.authenticate(new UsernamePasswordAuthenticationToken("student", PASSWORD));
+    }
+}
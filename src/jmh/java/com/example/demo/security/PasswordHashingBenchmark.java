@@ -0,0 +1,55 @@
+package com.example.demo.security;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Password checks per second on one thread, i.e. the login rate one core can sustain at each
+ * BCrypt strength, checked directly and through the bounded hashing pool (one hashing thread).
+ *
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="PasswordHashingBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PasswordHashingBenchmark {
+
+    @Param({ "8", "10", "12" })
+    private int strength;
+
+    private BCryptPasswordEncoder bcrypt;
+    private BoundedPasswordEncoder bounded;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        bcrypt = new BCryptPasswordEncoder(strength);
+        bounded = new BoundedPasswordEncoder(bcrypt, 1, 64);
+        hash = bcrypt.encode("password123");
+    }
+
+    @TearDown
+    public void tearDown() {
+        bounded.shutdown();
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return bcrypt.matches("password123", hash);
+    }
+
+    @Benchmark
+    public boolean boundedMatches() {
+        return bounded.matches("password123", hash);
+    }
+}
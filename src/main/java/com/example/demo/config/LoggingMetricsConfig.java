@@ -0,0 +1,46 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the async log appenders declared in logback-spring.xml to actuator:
+ * logging.async.dropped (tagged appender and reason "discarded" or "queue-full") and
+ * logging.async.queue.remaining. Meters look the appender up by name on every read, so they
+ * keep reporting when logging is reinitialised.
+ */
+@Configuration
+public class LoggingMetricsConfig {
+
+    @Bean
+    public MeterBinder asyncLoggingMetrics() {
+        return registry -> MeteredAsyncAppender.started().forEach(appender -> {
+            String name = appender.getName();
+            for (String reason : new String[] { MeteredAsyncAppender.REASON_DISCARDED,
+                    MeteredAsyncAppender.REASON_QUEUE_FULL }) {
+                FunctionCounter.builder("logging.async.dropped", name, n -> dropped(n, reason))
+                        .description("Log events dropped by an async appender instead of being written")
+                        .tags("appender", name, "reason", reason)
+                        .register(registry);
+            }
+            Gauge.builder("logging.async.queue.remaining", name, LoggingMetricsConfig::remainingCapacity)
+                    .description("Free slots in an async appender's queue")
+                    .tag("appender", name)
+                    .register(registry);
+        });
+    }
+
+    private static double dropped(String name, String reason) {
+        MeteredAsyncAppender appender = MeteredAsyncAppender.started(name);
+        return appender == null ? 0 : appender.getDropped(reason);
+    }
+
+    private static double remainingCapacity(String name) {
+        MeteredAsyncAppender appender = MeteredAsyncAppender.started(name);
+        return appender == null ? Double.NaN : appender.getRemainingCapacity();
+    }
+}
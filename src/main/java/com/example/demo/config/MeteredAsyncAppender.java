@@ -0,0 +1,87 @@
+package com.example.demo.config;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * {@link AsyncAppender} that counts what it drops, for the logging.async.* metrics.
+ *
+ * Once fewer than discardingThreshold slots are free, events at or below discardLevel (DEBUG
+ * unless configured otherwise) are discarded; stock AsyncAppender also discards INFO. With
+ * neverBlock, an event of any level that finds the queue full is dropped instead of making the
+ * logging thread wait. Both cases are counted per appender.
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    public static final String REASON_DISCARDED = "discarded";
+    public static final String REASON_QUEUE_FULL = "queue-full";
+
+    // Started instances by name; logback creates the appenders, so the metrics find them here
+    private static final Map<String, MeteredAsyncAppender> STARTED = new ConcurrentHashMap<>();
+
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder queueFull = new LongAdder();
+    private Level discardLevel = Level.DEBUG;
+
+    public static Collection<MeteredAsyncAppender> started() {
+        return STARTED.values();
+    }
+
+    public static MeteredAsyncAppender started(String name) {
+        return STARTED.get(name);
+    }
+
+    public void setDiscardLevel(String level) {
+        this.discardLevel = Level.toLevel(level, Level.DEBUG);
+    }
+
+    public String getDiscardLevel() {
+        return discardLevel.toString();
+    }
+
+    public long getDropped(String reason) {
+        return REASON_DISCARDED.equals(reason) ? discarded.sum() : queueFull.sum();
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        if (isStarted()) {
+            STARTED.put(getName(), this);
+        }
+    }
+
+    @Override
+    public void stop() {
+        STARTED.remove(getName(), this);
+        super.stop();
+    }
+
+    // Only consulted once the queue is below the discarding threshold
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        if (event.getLevel().toInt() <= discardLevel.toInt()) {
+            discarded.increment();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (isNeverBlock() && getRemainingCapacity() == 0) {
+            if (!isDiscardable(event)) {
+                queueFull.increment();
+            }
+            return;
+        }
+        // An event that races another thread for the last free slot is lost uncounted by super's offer()
+        super.append(event);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Application metrics beyond what actuator publishes by itself. Percentile histograms for the
+ * timers are switched on by name in application.properties
+ * (management.metrics.distribution.percentiles-histogram.*).
+ */
+@Configuration
+public class MetricsConfig {
+
+    private final int maxUriTags;
+
+    public MetricsConfig(@Value("${metrics.max-uri-tags:100}") int maxUriTags) {
+        this.maxUriTags = maxUriTags;
+    }
+
+    // Being a JacksonJsonHttpMessageConverter bean, it replaces Boot's JSON converter for MVC
+    @Bean
+    public TimedJsonHttpMessageConverter timedJsonHttpMessageConverter(JsonMapper jsonMapper, MeterRegistry meterRegistry) {
+        return new TimedJsonHttpMessageConverter(jsonMapper, meterRegistry);
+    }
+
+    // URI templates are bounded by the mappings, but cap them in case a handler matches raw paths
+    @Bean
+    public MeterFilter serializationUriTagLimit() {
+        return MeterFilter.maximumAllowableTags(TimedJsonHttpMessageConverter.TIMER, "uri", maxUriTags,
+                MeterFilter.deny());
+    }
+}
@@ -1,22 +1,133 @@
 package com.example.demo.config;
 
+import java.time.Duration;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+/**
+ * HTTP clients for the external API. Both keep a bounded pool of keep-alive connections to
+ * external.api.base-url, fail fast on connect/response timeouts and when the pool is exhausted,
+ * close connections that sat idle or lived too long, and publish pool metrics to actuator
+ * (httpcomponents.httpclient.pool.* and reactor.netty.connection.provider.*, tagged "external-api").
+ */
 @Configuration
 public class RestTemplateConfig {
 
+    static final String POOL_NAME = "external-api";
+
+    private final String baseUrl;
+    private final int responseTimeoutMillis;
+    private final int connectTimeoutMillis;
+    private final int maxConnections;
+    private final int pendingAcquireTimeoutMillis;
+    private final int maxIdleSeconds;
+    private final int maxLifeSeconds;
+
+    public RestTemplateConfig(@Value("${external.api.base-url}") String baseUrl,
+                              @Value("${external.api.timeout:5000}") int responseTimeoutMillis,
+                              @Value("${external.api.connect-timeout:2000}") int connectTimeoutMillis,
+                              @Value("${external.api.max-connections:100}") int maxConnections,
+                              @Value("${external.api.pending-acquire-timeout:2000}") int pendingAcquireTimeoutMillis,
+                              @Value("${external.api.max-idle-seconds:30}") int maxIdleSeconds,
+                              @Value("${external.api.max-life-seconds:300}") int maxLifeSeconds) {
+        this.baseUrl = baseUrl;
+        this.responseTimeoutMillis = responseTimeoutMillis;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.maxConnections = maxConnections;
+        this.pendingAcquireTimeoutMillis = pendingAcquireTimeoutMillis;
+        this.maxIdleSeconds = maxIdleSeconds;
+        this.maxLifeSeconds = maxLifeSeconds;
+    }
+
+    // ============================================
+    // RestTemplate (Apache HttpClient 5)
+    // ============================================
+
+    @Bean
+    public PoolingHttpClientConnectionManager externalApiConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections) // every request goes to the same host
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+                        .setSocketTimeout(Timeout.ofMilliseconds(responseTimeoutMillis))
+                        .setTimeToLive(TimeValue.ofSeconds(maxLifeSeconds))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public CloseableHttpClient externalApiHttpClient(PoolingHttpClientConnectionManager externalApiConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(externalApiConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(pendingAcquireTimeoutMillis))
+                        .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMillis))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(maxIdleSeconds))
+                .build();
+    }
+
+    @Bean
+    public MeterBinder externalApiConnectionPoolMetrics(PoolingHttpClientConnectionManager externalApiConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(externalApiConnectionManager, POOL_NAME);
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient externalApiHttpClient) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(externalApiHttpClient));
+        restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory(baseUrl));
+        return restTemplate;
+    }
+
+    // ============================================
+    // WebClient (Reactor Netty)
+    // ============================================
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider externalApiConnectionProvider() {
+        return ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMillis))
+                .maxIdleTime(Duration.ofSeconds(maxIdleSeconds))
+                .maxLifeTime(Duration.ofSeconds(maxLifeSeconds))
+                .evictInBackground(Duration.ofSeconds(maxIdleSeconds))
+                .metrics(true) // registered with the global registry, which Boot bridges to actuator
+                .build();
     }
 
     @Bean
-    public WebClient webClient() {
+    public WebClient webClient(ConnectionProvider externalApiConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(externalApiConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                // Applies to the wait for the response and to every read while it streams in
+                .responseTimeout(Duration.ofMillis(responseTimeoutMillis));
         return WebClient.builder()
-                .baseUrl("https://jsonplaceholder.typicode.com")
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .build();
     }
-}
\ No newline at end of file
+}
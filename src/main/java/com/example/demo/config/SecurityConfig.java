@@ -1,5 +1,8 @@
 package com.example.demo.config;
 
+import jakarta.servlet.DispatcherType;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,38 +15,46 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import com.example.demo.security.BoundedPasswordEncoder;
 import com.example.demo.security.JwtAuthFilter;
-import com.example.demo.service.UserDetailsServiceImpl;
+import com.example.demo.security.RehashingAuthenticationProvider;
+import com.example.demo.service.CachingUserDetailsService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import lombok.RequiredArgsConstructor;
 
 @Configuration
 @RequiredArgsConstructor
 public class SecurityConfig {
 
-    private final UserDetailsServiceImpl userDetailsService;
+    private final CachingUserDetailsService userDetailsService;
     private final JwtAuthFilter jwtAuthFilter;
 
     @Bean
-public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+public SecurityFilterChain securityFilterChain(HttpSecurity http, DaoAuthenticationProvider authenticationProvider)
+        throws Exception {
     return http
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                    // Streamed responses finish on an async dispatch, which was already authorized
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                     .requestMatchers("/auth/login", "/auth/register").permitAll() // Allow both endpoints
                     .requestMatchers("/admin/**").hasRole("ADMIN").requestMatchers("/actuator/health", "/actuator/info","/actuator/metrics/**").permitAll()
                     .anyRequest().authenticated()
             )
-            .authenticationProvider(authenticationProvider())
+            .authenticationProvider(authenticationProvider)
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
             .build();
 }
 
+    // After a successful login the provider rehashes passwords stored with a lower work factor
+    // than the configured one and saves them through userDetailsService.updatePassword; when the
+    // hashing pool is busy the old hash is kept and the login still succeeds
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
-        provider.setPasswordEncoder(passwordEncoder());
-        return provider;
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
+        return new RehashingAuthenticationProvider(userDetailsService, passwordEncoder, userDetailsService);
     }
 
     @Bean
@@ -51,8 +62,17 @@ public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Excepti
         return config.getAuthenticationManager();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    // BCrypt at security.password.bcrypt-strength, hashed on a bounded pool (see BoundedPasswordEncoder)
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${security.password.bcrypt-strength:10}") int strength,
+            @Value("${security.password.hashing.threads:0}") int threads,
+            @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity) {
+        int hashingThreads = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(strength), hashingThreads, queueCapacity);
+        ExecutorServiceMetrics.monitor(meterRegistry, encoder.getExecutor(), "passwordHashing");
+        return encoder;
     }
 }
@@ -0,0 +1,55 @@
+package com.example.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.Solution;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Keeps solution ids from colliding after the switch from IDENTITY to the pooled solution_seq.
+ *
+ * On MySQL the sequence is a one-row table that Hibernate creates with next_val = 1, while
+ * solution may already hold rows with IDENTITY ids. A pooled generator hands out the
+ * ALLOCATION_SIZE ids up to the next_val it reads, so on startup (after the schema update,
+ * before the first insert) next_val is raised to at least max(solution.id) + ALLOCATION_SIZE.
+ * The update is conditional, so instances starting together cannot move it backwards. Databases
+ * with native sequences are left alone.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SolutionSequenceAlignment {
+
+    private static final Logger logger = LoggerFactory.getLogger(SolutionSequenceAlignment.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SolutionSequenceAlignment(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void align() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"MySQL".equalsIgnoreCase(database) && !"MariaDB".equalsIgnoreCase(database)) {
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from solution", Long.class);
+        if (maxId == null) {
+            return;
+        }
+        long required = maxId + Solution.ID_ALLOCATION_SIZE;
+        int raised = jdbcTemplate.update("update solution_seq set next_val = ? where next_val < ?", required, required);
+        if (raised > 0) {
+            logger.warn("Raised solution_seq to {} past the highest existing solution id {}", required, maxId);
+        } else if (jdbcTemplate.queryForObject("select count(*) from solution_seq", Long.class) == 0) {
+            throw new IllegalStateException("solution_seq has no row; Hibernate's schema update did not create it");
+        }
+    }
+}
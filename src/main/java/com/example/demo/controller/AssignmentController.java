@@ -1,20 +1,33 @@
 package com.example.demo.controller;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.demo.dto.AssignmentPage;
 import com.example.demo.dto.AssignmentRequest;
+import com.example.demo.dto.AssignmentStatistics;
+import com.example.demo.dto.AssignmentSummary;
+import com.example.demo.dto.BulkItemResult;
 import com.example.demo.dto.MarksRequest;
 import com.example.demo.dto.SolutionRequest;
+import com.example.demo.dto.SolutionView;
+import com.example.demo.dto.SubmissionPage;
+import com.example.demo.dto.SubmissionSummary;
 import com.example.demo.model.Assignment;
 import com.example.demo.model.Role;
 import com.example.demo.model.Solution;
@@ -22,7 +35,12 @@ import com.example.demo.model.User;
 import com.example.demo.model.UserDetailImpl;
 import com.example.demo.repository.AssignmentRepository;
 import com.example.demo.repository.SolutionRepository;
+import com.example.demo.service.AssignmentStatisticsService;
+import com.example.demo.service.SolutionGradingService;
+import com.example.demo.service.SolutionSubmissionService;
+import com.example.demo.service.SubmissionIngestionService;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -31,9 +49,18 @@ import lombok.RequiredArgsConstructor;
 public class AssignmentController {
 
     private static final Logger logger = LoggerFactory.getLogger(AssignmentController.class);
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BULK_ITEMS = 1000;
+    // Database part of create/list/submit/mark; serialization is timed by TimedJsonHttpMessageConverter
+    static final String DB_TIMER = "assignments.db";
 
     private final AssignmentRepository assignmentRepository;
     private final SolutionRepository solutionRepository;
+    private final SolutionSubmissionService solutionSubmissionService;
+    private final SolutionGradingService solutionGradingService;
+    private final SubmissionIngestionService submissionIngestionService;
+    private final AssignmentStatisticsService assignmentStatisticsService;
+    private final MeterRegistry meterRegistry;
 
     // Admin posts assignment
     @PostMapping("/create")
@@ -62,7 +89,9 @@ public class AssignmentController {
             assignment.setTitle(request.getTitle());
             assignment.setQuestions(request.getQuestions());
 
+            long dbStart = System.nanoTime();
             Assignment savedAssignment = assignmentRepository.save(assignment);
+            recordDbTime("create", dbStart);
             logger.info("Assignment '{}' (ID: {}) created successfully by admin '{}'", 
                         savedAssignment.getTitle(), savedAssignment.getId(), currentUser.getUsername());
             
@@ -74,12 +103,14 @@ public class AssignmentController {
         }
     }
 
-    // Student gets all assignments
+    // Student gets all assignments, one keyset page at a time
     @GetMapping("/all")
-    public ResponseEntity<List<Assignment>> getAssignments(
+    public ResponseEntity<AssignmentPage> getAssignments(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int limit,
             @AuthenticationPrincipal UserDetailImpl currentUserDetails) {
         
-        logger.info("Request to fetch all assignments");
+        logger.debug("Request to fetch assignments after ID: {} (limit: {})", after, limit);
         
         if (currentUserDetails == null) {
             logger.warn("Unauthenticated attempt to view assignments");
@@ -91,24 +122,162 @@ public class AssignmentController {
                      currentUser.getUsername(), currentUser.getRole());
         
         try {
-            List<Assignment> assignments = assignmentRepository.findAll();
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            // Fetch one extra row to know whether another page exists
+            long dbStart = System.nanoTime();
+            List<AssignmentSummary> items = assignmentRepository.findSummariesAfter(
+                    after != null ? after : 0L, Limit.of(pageSize + 1));
+            recordDbTime("list", dbStart);
+
+            Long nextCursor = null;
+            if (items.size() > pageSize) {
+                items = items.subList(0, pageSize);
+                nextCursor = items.get(pageSize - 1).getId();
+            }
+
             logger.info("Retrieved {} assignments for user '{}'", 
-                        assignments.size(), currentUser.getUsername());
+                        items.size(), currentUser.getUsername());
             
-            return ResponseEntity.ok(assignments);
+            return ResponseEntity.ok(new AssignmentPage(items, nextCursor));
         } catch (Exception e) {
             logger.error("Error fetching assignments for user '{}'", currentUser.getUsername(), e);
             throw e;
         }
     }
 
+    // Student pages through their own submissions, e.g. to check marks once grades are out
+    @GetMapping("/my-submissions")
+    public ResponseEntity<SubmissionPage> getMySubmissions(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal UserDetailImpl currentUserDetails) {
+
+        logger.debug("Request to fetch own submissions after cursor: {} (limit: {})", after, limit);
+
+        if (currentUserDetails == null) {
+            logger.warn("Unauthenticated attempt to view submissions");
+            return ResponseEntity.status(401).build();
+        }
+
+        User currentUser = currentUserDetails.getUser();
+        long afterAssignmentId = 0L;
+        long afterSolutionId = 0L;
+        if (after != null) {
+            String[] parts = after.split(":", -1);
+            try {
+                if (parts.length != 2) {
+                    throw new NumberFormatException(after);
+                }
+                afterAssignmentId = Long.parseLong(parts[0]);
+                afterSolutionId = Long.parseLong(parts[1]);
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid submissions cursor '{}' from user '{}'", after, currentUser.getUsername());
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists
+        List<SubmissionSummary> items = solutionRepository.findSubmissionsAfter(
+                currentUser.getId(), afterAssignmentId, afterSolutionId, Limit.of(pageSize + 1));
+
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            SubmissionSummary last = items.get(pageSize - 1);
+            nextCursor = last.getAssignmentId() + ":" + last.getSolutionId();
+        }
+
+        logger.debug("Retrieved {} submissions for user '{}'", items.size(), currentUser.getUsername());
+        return ResponseEntity.ok(new SubmissionPage(items, nextCursor));
+    }
+
+    // Student gets one assignment with its questions
+    @GetMapping("/{id}")
+    public ResponseEntity<Assignment> getAssignment(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetailImpl currentUserDetails) {
+
+        logger.debug("Request to fetch assignment ID: {}", id);
+
+        if (currentUserDetails == null) {
+            logger.warn("Unauthenticated attempt to view assignment ID: {}", id);
+            return ResponseEntity.status(401).build();
+        }
+
+        return assignmentRepository.findWithQuestionsById(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> {
+                    logger.warn("Assignment not found with ID: {} requested by user '{}'", 
+                                id, currentUserDetails.getUsername());
+                    return ResponseEntity.notFound().build();
+                });
+    }
+
+    // Admin lists all solutions of an assignment for grading
+    @GetMapping("/{id}/solutions")
+    public ResponseEntity<List<SolutionView>> getSolutions(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetailImpl currentUserDetails) {
+
+        logger.debug("Request to fetch solutions for assignment ID: {}", id);
+
+        if (currentUserDetails == null) {
+            logger.warn("Unauthenticated attempt to view solutions for assignment ID: {}", id);
+            return ResponseEntity.status(401).build();
+        }
+
+        User currentUser = currentUserDetails.getUser();
+        if (!currentUser.getRole().equals(Role.ADMIN)) {
+            logger.warn("Non-admin user '{}' attempted to view solutions for assignment ID: {}", 
+                        currentUser.getUsername(), id);
+            return ResponseEntity.status(403).build();
+        }
+
+        List<SolutionView> solutions = solutionRepository.findByAssignmentIdOrderById(id).stream()
+                .map(solution -> new SolutionView(
+                        solution.getId(),
+                        solution.getStudent().getId(),
+                        solution.getStudent().getUsername(),
+                        solution.getAnswers(),
+                        solution.getMarks()))
+                .toList();
+
+        logger.info("Retrieved {} solutions for assignment ID: {} for admin '{}'", 
+                    solutions.size(), id, currentUser.getUsername());
+        return ResponseEntity.ok(solutions);
+    }
+
+    // Admin views grading statistics of an assignment, served from the in-memory aggregate
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<AssignmentStatistics> getStatistics(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetailImpl currentUserDetails) {
+
+        logger.debug("Request to fetch statistics for assignment ID: {}", id);
+
+        if (currentUserDetails == null) {
+            logger.warn("Unauthenticated attempt to view statistics for assignment ID: {}", id);
+            return ResponseEntity.status(401).build();
+        }
+
+        User currentUser = currentUserDetails.getUser();
+        if (!currentUser.getRole().equals(Role.ADMIN)) {
+            logger.warn("Non-admin user '{}' attempted to view statistics for assignment ID: {}", 
+                        currentUser.getUsername(), id);
+            return ResponseEntity.status(403).build();
+        }
+
+        return ResponseEntity.ok(assignmentStatisticsService.getStatistics(id));
+    }
+
     // Student submits solution
     @PostMapping("/submit")
     public ResponseEntity<String> submitSolution(
             @RequestBody SolutionRequest request,
             @AuthenticationPrincipal UserDetailImpl currentUserDetails) {
         
-        logger.info("Solution submission request for assignment ID: {}", request.getAssignmentId());
+        logger.debug("Solution submission request for assignment ID: {}", request.getAssignmentId());
         
         if (currentUserDetails == null) {
             logger.warn("Unauthenticated attempt to submit solution for assignment ID: {}", 
@@ -126,7 +295,12 @@ public class AssignmentController {
             return ResponseEntity.status(403).body("Only students can submit solutions");
         }
 
+        if (submissionIngestionService.isEnabled()) {
+            return submitSolutionAsync(request, currentUser);
+        }
+
         try {
+            long dbStart = System.nanoTime();
             Assignment assignment = assignmentRepository.findById(request.getAssignmentId())
                     .orElseThrow(() -> {
                         logger.error("Assignment not found with ID: {} requested by student '{}'", 
@@ -143,6 +317,8 @@ public class AssignmentController {
             solution.setAnswers(request.getAnswers());
 
             Solution savedSolution = solutionRepository.save(solution);
+            recordDbTime("submit", dbStart);
+            assignmentStatisticsService.recordSubmission(assignment.getId());
             logger.info("Solution (ID: {}) submitted successfully by student '{}' for assignment '{}' (ID: {})", 
                         savedSolution.getId(), currentUser.getUsername(), 
                         assignment.getTitle(), assignment.getId());
@@ -155,6 +331,68 @@ public class AssignmentController {
         }
     }
 
+    // Validate, queue for the background writer and hand back a receipt
+    private ResponseEntity<String> submitSolutionAsync(SolutionRequest request, User currentUser) {
+        long dbStart = System.nanoTime();
+        boolean assignmentExists = assignmentRepository.existsById(request.getAssignmentId());
+        recordDbTime("submit", dbStart);
+        if (!assignmentExists) {
+            logger.error("Assignment not found with ID: {} requested by student '{}'", 
+                         request.getAssignmentId(), currentUser.getUsername());
+            throw new RuntimeException("Assignment not found");
+        }
+
+        Optional<String> receipt = submissionIngestionService.submit(
+                request.getAssignmentId(), currentUser.getId(), request.getAnswers());
+        if (receipt.isEmpty()) {
+            logger.warn("Submission queue full, student '{}' asked to retry submission for assignment ID: {}", 
+                        currentUser.getUsername(), request.getAssignmentId());
+            return ResponseEntity.status(503)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Too many submissions right now, please retry");
+        }
+
+        logger.info("Solution accepted with receipt {} from student '{}' for assignment ID: {}", 
+                    receipt.get(), currentUser.getUsername(), request.getAssignmentId());
+        return ResponseEntity.accepted().body("Solution accepted with receipt " + receipt.get());
+    }
+
+    // Student submits many solutions at once (e.g. offline classroom sync)
+    @PostMapping("/submit/bulk")
+    public ResponseEntity<List<BulkItemResult>> submitSolutions(
+            @RequestBody List<SolutionRequest> requests,
+            @AuthenticationPrincipal UserDetailImpl currentUserDetails) {
+
+        logger.info("Bulk solution submission request with {} items", requests.size());
+
+        if (currentUserDetails == null) {
+            logger.warn("Unauthenticated attempt to bulk submit {} solutions", requests.size());
+            return ResponseEntity.status(401).build();
+        }
+
+        User currentUser = currentUserDetails.getUser();
+        if (!currentUser.getRole().equals(Role.STUDENT)) {
+            logger.warn("Non-student user '{}' (role: {}) attempted to bulk submit solutions", 
+                        currentUser.getUsername(), currentUser.getRole());
+            return ResponseEntity.status(403).build();
+        }
+
+        if (requests.size() > MAX_BULK_ITEMS) {
+            logger.warn("Bulk submission by student '{}' rejected: {} items exceeds limit of {}", 
+                        currentUser.getUsername(), requests.size(), MAX_BULK_ITEMS);
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            List<BulkItemResult> results = solutionSubmissionService.submitAll(currentUser, requests);
+            return ResponseEntity.ok(results);
+        } catch (RuntimeException e) {
+            logger.error("Error bulk submitting {} solutions by student '{}'", 
+                         requests.size(), currentUser.getUsername(), e);
+            throw e;
+        }
+    }
+
     // Admin gives marks
     @PostMapping("/mark")
     public ResponseEntity<String> giveMarks(
@@ -181,21 +419,20 @@ public class AssignmentController {
         }
 
         try {
-            Solution solution = solutionRepository.findById(request.getSolutionId())
+            long dbStart = System.nanoTime();
+            // Locks the solution while its previous marks are read, so concurrent gradings do not double-count
+            SolutionGradingService.GradedRow previous = solutionGradingService
+                    .grade(request.getSolutionId(), request.getMarks())
                     .orElseThrow(() -> {
                         logger.error("Solution not found with ID: {} requested by admin '{}'", 
                                      request.getSolutionId(), currentUser.getUsername());
                         return new RuntimeException("Solution not found");
                     });
+            recordDbTime("mark", dbStart);
 
-            Integer previousMarks = solution.getMarks();
-            solution.setMarks(request.getMarks());
-            solutionRepository.save(solution);
-            
-            logger.info("Admin '{}' assigned {} marks to solution ID: {} for student '{}' (assignment: '{}', previous marks: {})", 
-                        currentUser.getUsername(), request.getMarks(), solution.getId(), 
-                        solution.getStudent().getUsername(), solution.getAssignment().getTitle(), 
-                        previousMarks);
+            logger.info("Admin '{}' assigned {} marks to solution ID: {} (assignment ID: {}, previous marks: {})", 
+                        currentUser.getUsername(), request.getMarks(), request.getSolutionId(), 
+                        previous.assignmentId(), previous.marks());
             
             return ResponseEntity.ok("Marks updated successfully");
         } catch (RuntimeException e) {
@@ -204,4 +441,45 @@ public class AssignmentController {
             throw e;
         }
     }
+
+    // Admin gives marks to many solutions at once
+    @PostMapping("/mark/bulk")
+    public ResponseEntity<List<BulkItemResult>> giveMarksBulk(
+            @RequestBody List<MarksRequest> requests,
+            @AuthenticationPrincipal UserDetailImpl currentUserDetails) {
+
+        logger.info("Bulk marks request with {} items", requests.size());
+
+        if (currentUserDetails == null) {
+            logger.warn("Unauthenticated attempt to bulk assign {} marks", requests.size());
+            return ResponseEntity.status(401).build();
+        }
+
+        User currentUser = currentUserDetails.getUser();
+        if (!currentUser.getRole().equals(Role.ADMIN)) {
+            logger.warn("Non-admin user '{}' (role: {}) attempted to bulk assign marks", 
+                        currentUser.getUsername(), currentUser.getRole());
+            return ResponseEntity.status(403).build();
+        }
+
+        if (requests.size() > MAX_BULK_ITEMS) {
+            logger.warn("Bulk marks by admin '{}' rejected: {} items exceeds limit of {}", 
+                        currentUser.getUsername(), requests.size(), MAX_BULK_ITEMS);
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            List<BulkItemResult> results = solutionGradingService.gradeAll(requests);
+            logger.info("Admin '{}' bulk assigned marks to {} solutions", currentUser.getUsername(), requests.size());
+            return ResponseEntity.ok(results);
+        } catch (RuntimeException e) {
+            logger.error("Error bulk assigning {} marks by admin '{}'", 
+                         requests.size(), currentUser.getUsername(), e);
+            throw e;
+        }
+    }
+
+    private void recordDbTime(String operation, long start) {
+        meterRegistry.timer(DB_TIMER, "operation", operation).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
 }
\ No newline at end of file
@@ -1,9 +1,17 @@
 package com.example.demo.controller;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -13,12 +21,17 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.example.demo.dto.AuthRequest;
 import com.example.demo.dto.AuthResponse;
+import com.example.demo.dto.BulkItemResult;
 import com.example.demo.dto.RegisterRequest;
 import com.example.demo.model.Role;
 import com.example.demo.model.User;
 import com.example.demo.model.UserDetailImpl;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.security.JwtUtil;
+import com.example.demo.security.PasswordHashingBusyException;
+import com.example.demo.service.CachingUserDetailsService;
+import com.example.demo.service.UserEnrollmentService;
+import com.example.demo.service.UserEnrollmentService.EnrollmentRows;
 
 import lombok.RequiredArgsConstructor;
 
@@ -33,6 +46,8 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
+    private final CachingUserDetailsService userDetailsCache;
+    private final UserEnrollmentService userEnrollmentService;
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
 
     // LOGIN (open to everyone)
@@ -40,12 +55,18 @@ public class AuthController {
     public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request) {
         logger.info("Login attempt for username: {}", request.getUsername());
 
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-        );
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
+            );
+        } catch (PasswordHashingBusyException e) {
+            logger.warn("Login for username {} refused: {}", request.getUsername(), e.getMessage());
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
 
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // The provider already loaded the user to check the password; the token (id, role) is built from it
+        User user = ((UserDetailImpl) authentication.getPrincipal()).getUser();
 
         String token = jwtUtil.generateToken(user);
 
@@ -75,26 +96,83 @@ public ResponseEntity<String> register(
         return ResponseEntity.status(403).body("Only admins can register new users");
     }
     
-    // Check for existing username/email
-    if (userRepository.existsByUsername(request.getUsername())) {
-        logger.warn("Registration failed: Username {} already exists", request.getUsername());
-        return ResponseEntity.badRequest().body("Username already exists");
-    }
-    if (userRepository.existsByEmail(request.getEmail())) {
-        logger.warn("Registration failed: Email {} already exists", request.getEmail());
-        return ResponseEntity.badRequest().body("Email already exists");
-    }
-
-    // Create and save user
+    // Create and save user; the unique indexes on username and email reject duplicates
     User user = new User();
     user.setUsername(request.getUsername());
     user.setEmail(request.getEmail());
-    user.setPassword(passwordEncoder.encode(request.getPassword()));
+    try {
+        user.setPassword(passwordEncoder.encode(request.getPassword()));
+    } catch (PasswordHashingBusyException e) {
+        logger.warn("Registration of {} refused: {}", request.getUsername(), e.getMessage());
+        return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
+    }
     user.setRole(request.getRole() != null ? request.getRole() : Role.STUDENT); 
 
-    userRepository.save(user);
+    try {
+        userRepository.saveAndFlush(user);
+    } catch (DataIntegrityViolationException e) {
+        String message = UserEnrollmentService.duplicateMessage(e);
+        logger.warn("Registration of {} failed: {}", request.getUsername(), message);
+        return ResponseEntity.badRequest().body(message);
+    }
+    userDetailsCache.evict(user.getUsername());
     logger.info("User {} registered successfully by admin {} with role {}", 
                     user.getUsername(), currentUser.getUsername(), user.getRole());
     return ResponseEntity.ok("User registered successfully by admin");
 }
+
+    // BULK REGISTER (only admin): the upload is read row by row and enrolled chunk by chunk, as a
+    // JSON array or NDJSON of register requests, or CSV with a header line such as
+    // "username,email,password,role". The report has one result per row.
+    @PostMapping(value = "/register/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BulkItemResult>> registerBulk(
+            InputStream upload,
+            @AuthenticationPrincipal UserDetailImpl currentUserDetails) throws IOException {
+        return enroll(currentUserDetails, () -> userEnrollmentService.readJsonArray(upload));
+    }
+
+    @PostMapping(value = "/register/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<BulkItemResult>> registerBulkNdjson(
+            InputStream upload,
+            @AuthenticationPrincipal UserDetailImpl currentUserDetails) throws IOException {
+        return enroll(currentUserDetails, () -> userEnrollmentService.readNdjson(upload));
+    }
+
+    @PostMapping(value = "/register/bulk", consumes = "text/csv")
+    public ResponseEntity<List<BulkItemResult>> registerBulkCsv(
+            InputStream upload,
+            @AuthenticationPrincipal UserDetailImpl currentUserDetails) throws IOException {
+        return enroll(currentUserDetails, () -> userEnrollmentService.readCsv(upload));
+    }
+
+    private ResponseEntity<List<BulkItemResult>> enroll(UserDetailImpl currentUserDetails, UploadReader reader)
+            throws IOException {
+        if (currentUserDetails == null) {
+            logger.warn("Unauthenticated attempt to bulk register users");
+            return ResponseEntity.status(401).build();
+        }
+
+        User currentUser = currentUserDetails.getUser();
+        if (!currentUser.getRole().equals(Role.ADMIN)) {
+            logger.warn("Non-admin user {} attempted to bulk register users", currentUser.getUsername());
+            return ResponseEntity.status(403).build();
+        }
+
+        EnrollmentRows rows;
+        try {
+            rows = reader.open();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Bulk registration by admin {} rejected: {}", currentUser.getUsername(), e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<BulkItemResult> results = userEnrollmentService.enroll(rows);
+        logger.info("Admin {} bulk registered users from an upload of {} rows", currentUser.getUsername(), results.size());
+        return ResponseEntity.ok(results);
+    }
+
+    @FunctionalInterface
+    private interface UploadReader {
+        EnrollmentRows open() throws IOException;
+    }
 }
@@ -3,7 +3,11 @@ package com.example.demo.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -11,6 +15,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.example.demo.dto.ExternalDataDto;
 import com.example.demo.service.ExternalApiService;
+import com.example.demo.service.ExternalApiUnavailableException;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -22,6 +27,10 @@ public class ExternalApiController {
     @Autowired
     private ExternalApiService externalApiService;
 
+    // An open circuit lets the next trial call through after this long
+    @Value("${external.api.breaker.open-seconds:30}")
+    private long retryAfterSeconds;
+
     // ============================================
     // RestTemplate Endpoints (Synchronous)
     // ============================================
@@ -47,8 +56,13 @@ public class ExternalApiController {
     // ============================================
     // WebClient Endpoints (Reactive)
     // ============================================
+    // A Flux is written element by element as NDJSON (Accept: application/x-ndjson) or server-sent
+    // events (Accept: text/event-stream), one post requested at a time so backpressure reaches the
+    // upstream connection. For application/json it is collected into one array. Either way the
+    // request thread is released while the upstream responds.
 
-    @GetMapping("/posts/webclient")
+    @GetMapping(value = "/posts/webclient",
+            produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
     public Flux<ExternalDataDto> getAllPostsWebClient() {
         return externalApiService.getAllPostsWebClient();
     }
@@ -58,14 +72,26 @@ public class ExternalApiController {
         return externalApiService.getPostByIdWebClient(id);
     }
 
-    @GetMapping("/posts/webclient/user/{userId}")
+    @GetMapping(value = "/posts/webclient/user/{userId}",
+            produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
     public Flux<ExternalDataDto> getPostsByUserIdWebClient(@PathVariable Long userId) {
         return externalApiService.getPostsByUserIdWebClient(userId);
     }
 
+    // Kept for comparison with the RestTemplate endpoints; the list is assembled without blocking
     @GetMapping("/posts/webclient/blocking")
-    public ResponseEntity<List<ExternalDataDto>> getAllPostsWebClientBlocking() {
-        List<ExternalDataDto> posts = externalApiService.getAllPostsWebClientBlocking();
-        return ResponseEntity.ok(posts);
+    public Mono<ResponseEntity<List<ExternalDataDto>>> getAllPostsWebClientBlocking() {
+        return externalApiService.getAllPostsWebClient()
+                .collectList()
+                .map(ResponseEntity::ok);
+    }
+
+    // Circuit open, bulkhead full or no timely answer, and nothing cached to fall back to; also
+    // raised by the reactive endpoints, as long as no post has been written yet
+    @ExceptionHandler(ExternalApiUnavailableException.class)
+    public ResponseEntity<String> handleUnavailable(ExternalApiUnavailableException e) {
+        return ResponseEntity.status(503)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body("External API unavailable, please retry");
     }
 }
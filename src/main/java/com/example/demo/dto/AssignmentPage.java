@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssignmentPage {
+    private List<AssignmentSummary> items;
+    private Long nextCursor; // pass as ?after= to get the next page, null on the last page
+}
@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssignmentStatistics {
+    private Long assignmentId;
+    private long submissionCount;
+    private long gradedCount;
+    private Double meanMarks;   // null until something is graded
+    private Integer minMarks;
+    private Integer maxMarks;
+    private Map<Integer, Long> histogram; // lower bound of each 10-mark bucket -> graded solutions
+}
@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// List view of an assignment; the questions themselves come from GET /assignments/{id}
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssignmentSummary {
+    private Long id;
+    private String title;
+    private Integer questionCount;
+}
@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of one item of a bulk request, reported at the item's position in the request
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemResult {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        NOT_FOUND,
+        INVALID,
+        // Would duplicate an existing row (or an earlier item of the same request)
+        CONFLICT
+    }
+
+    private int index;
+    private Long id;
+    private Status status;
+    private String message;
+}
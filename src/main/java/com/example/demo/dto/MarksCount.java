@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Number of solutions of one assignment having the given marks (null = not graded yet)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarksCount {
+    private Long assignmentId;
+    private Integer marks;
+    private Long count;
+}
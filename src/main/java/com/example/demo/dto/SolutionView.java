@@ -0,0 +1,18 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SolutionView {
+    private Long id;
+    private Integer studentId;
+    private String studentUsername;
+    private List<String> answers;
+    private Integer marks;
+}
@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A student's own solution as listed in their submission history; answers are not included
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionSummary {
+    private Long solutionId;
+    private Long assignmentId;
+    private String assignmentTitle;
+    private Integer marks;
+}
@@ -2,6 +2,8 @@ package com.example.demo.model;
 
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.CascadeType;
@@ -28,6 +30,7 @@ public class Assignment {
     private String title; // Assignment title
 
     @ElementCollection
+    @BatchSize(size = 50)
     private List<String> questions; // List of questions
 
     @OneToMany(mappedBy = "assignment", cascade = CascadeType.ALL)
@@ -2,38 +2,61 @@ package com.example.demo.model;
 
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_solution_student_assignment", columnList = "student_id, assignment_id"),
+        @Index(name = Solution.RECEIPT_INDEX, columnList = "receipt_id", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Solution {
 
+    // Ids handed out per solution_seq read; see SolutionSequenceAlignment
+    public static final int ID_ALLOCATION_SIZE = 50;
+    public static final String RECEIPT_INDEX = "ux_solution_receipt";
+
+    // Pooled sequence (a table on MySQL) instead of IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solution_seq")
+    @SequenceGenerator(name = "solution_seq", sequenceName = "solution_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnore  // Prevents circular reference
 
     private Assignment assignment;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private User student;
 
     @ElementCollection
+    @BatchSize(size = 50)
     private List<String> answers; // Student answers
 
     private Integer marks; // Assigned by admin
+
+    // Journal receipt of a queued submission, so a replayed batch is not stored twice; null otherwise
+    @Column(name = "receipt_id", length = 36)
+    @JsonIgnore
+    private String receiptId;
 }
\ No newline at end of file
@@ -5,16 +5,27 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+// Unique indexes: duplicates are rejected by the database (also under concurrent registrations)
+// and findByUsername is an index lookup
+@Table(indexes = {
+        @Index(name = User.USERNAME_INDEX, columnList = "username", unique = true),
+        @Index(name = User.EMAIL_INDEX, columnList = "email", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
 
+    public static final String USERNAME_INDEX = "ux_user_username";
+    public static final String EMAIL_INDEX = "ux_user_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -1,8 +1,7 @@
 package com.example.demo.model;
 
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -10,9 +9,11 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 public class UserDetailImpl implements UserDetails {
     private final User user;
+    private final List<GrantedAuthority> authorities;
     
     public UserDetailImpl(User user) {
         this.user = user;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole()));
     }
     
     // Add this getter
@@ -22,8 +23,6 @@ public class UserDetailImpl implements UserDetails {
     
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities(){
-        Set<GrantedAuthority> authorities = new HashSet<>();
-        authorities.add(new SimpleGrantedAuthority("ROLE_" + user.getRole()));
         return authorities;
     }
     
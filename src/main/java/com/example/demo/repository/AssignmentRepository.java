@@ -1,8 +1,29 @@
 package com.example.demo.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.example.demo.dto.AssignmentSummary;
 import com.example.demo.model.Assignment;
 
 public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
-}
\ No newline at end of file
+
+    // Assignment and its questions in one select
+    @EntityGraph(attributePaths = "questions")
+    Optional<Assignment> findWithQuestionsById(Long id);
+
+    // Keyset page ordered by id; question count is a per-row subquery, not a join on the collection
+    @Query("select new com.example.demo.dto.AssignmentSummary(a.id, a.title, size(a.questions)) "
+            + "from Assignment a where a.id > :afterId order by a.id")
+    List<AssignmentSummary> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("select a.id from Assignment a where a.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+}
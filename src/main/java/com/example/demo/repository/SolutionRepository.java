@@ -1,11 +1,42 @@
 package com.example.demo.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.example.demo.dto.MarksCount;
+import com.example.demo.dto.SubmissionSummary;
 import com.example.demo.model.Solution;
 
 public interface SolutionRepository extends JpaRepository<Solution, Long> {
-    List<Solution> findByStudentId(Long studentId);
+    List<Solution> findByStudentId(Integer studentId);
+
+    // Keyset page of a student's solutions ordered by (assignment, solution), served by the
+    // (student_id, assignment_id) index; only the assignment title is joined, nothing is hydrated
+    @Query("select new com.example.demo.dto.SubmissionSummary(s.id, a.id, a.title, s.marks) "
+            + "from Solution s join s.assignment a where s.student.id = :studentId "
+            + "and (a.id > :afterAssignmentId or (a.id = :afterAssignmentId and s.id > :afterSolutionId)) "
+            + "order by a.id, s.id")
+    List<SubmissionSummary> findSubmissionsAfter(@Param("studentId") Integer studentId,
+                                                 @Param("afterAssignmentId") Long afterAssignmentId,
+                                                 @Param("afterSolutionId") Long afterSolutionId,
+                                                 Limit limit);
+
+    // Solutions with their student and answers in one select, for grading views
+    @EntityGraph(attributePaths = {"student", "answers"})
+    List<Solution> findByAssignmentIdOrderById(Long assignmentId);
+
+    // One row per (assignment, marks) pair; used to rebuild the statistics aggregate
+    @Query("select new com.example.demo.dto.MarksCount(s.assignment.id, s.marks, count(s)) "
+            + "from Solution s group by s.assignment.id, s.marks")
+    List<MarksCount> countByAssignmentAndMarks();
+
+    // Receipts among the given ones whose submission is already stored, served by ux_solution_receipt
+    @Query("select s.receiptId from Solution s where s.receiptId in :receiptIds")
+    List<String> findStoredReceiptIds(@Param("receiptIds") Collection<String> receiptIds);
 }
@@ -0,0 +1,89 @@
+package com.example.demo.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Runs a CPU-heavy {@link PasswordEncoder} (BCrypt) on a fixed number of hashing threads instead
+ * of on the request threads, so a burst of logins uses at most that many cores and other
+ * endpoints keep theirs. Up to queueCapacity hashes wait for a thread; beyond that the call fails
+ * at once with {@link PasswordHashingBusyException}. The request thread still waits for its own
+ * hash, which is cheap on a virtual thread.
+ *
+ * Hash upgrades (see {@link #upgradeEncoding(String)}) cost one extra hash at the new work factor,
+ * so they are only offered while nothing is queued; a login during a burst keeps its old hash and
+ * is upgraded on a later login. The queue can still fill up before the rehash is submitted, so
+ * callers treat a busy rehash as no upgrade (see {@link RehashingAuthenticationProvider}).
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                Thread.ofPlatform().name("password-hashing-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // The encoder doing the hashing, for callers that schedule hashes themselves
+    public PasswordEncoder getDelegate() {
+        return delegate;
+    }
+
+    public ThreadPoolExecutor getExecutor() {
+        return executor;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return executor.getQueue().isEmpty() && delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> hashing) {
+        Future<T> result;
+        try {
+            result = executor.submit(hashing);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Password hashing rejected: {} threads busy and {} hashes queued",
+                    executor.getActiveCount(), executor.getQueue().size());
+            throw new PasswordHashingBusyException("Too many password checks in progress, please retry");
+        }
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Interrupted while waiting for password hashing");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Process-local user-version table. Only users whose tokens were revoked have an entry,
+ * so the table stays small. Revocations are not persisted and are lost on restart.
+ */
+@Component
+public class InMemoryTokenRevocationHook implements TokenRevocationHook {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryTokenRevocationHook.class);
+
+    private final Map<Integer, Long> versions = new ConcurrentHashMap<>();
+
+    @Override
+    public long currentVersion(Integer userId) {
+        return userId == null ? 0L : versions.getOrDefault(userId, 0L);
+    }
+
+    @Override
+    public boolean isRevoked(Integer userId, long tokenVersion) {
+        return tokenVersion < currentVersion(userId);
+    }
+
+    @Override
+    public void revoke(Integer userId) {
+        long version = versions.merge(userId, 1L, Long::sum);
+        logger.info("Revoked tokens for user ID: {} (now at version {})", userId, version);
+    }
+}
@@ -1,31 +1,66 @@
 package com.example.demo.security;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.example.demo.service.UserDetailsServiceImpl;
+import com.example.demo.service.CachingUserDetailsService;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 
+/**
+ * Authenticates requests carrying a Bearer token.
+ *
+ * Each phase is timed as auth.filter{phase=parse|user_load|validate} and every rejected token
+ * counts towards auth.failures{reason}. Tags come from fixed sets, never from the token or user.
+ */
 @Component
-@RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthFilter.class);
+    static final String PHASE_TIMER = "auth.filter";
+    static final String FAILURE_COUNTER = "auth.failures";
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsServiceImpl userDetailsService;
+    private final CachingUserDetailsService userDetailsService;
+    private final MeterRegistry meterRegistry;
+    private final Timer parseTimer;
+    private final Timer userLoadTimer;
+    private final Timer validateTimer;
+
+    // Rebuild the principal from signed claims instead of loading it from the database
+    @Value("${jwt.stateless-principal:false}")
+    private boolean statelessPrincipal;
+
+    public JwtAuthFilter(JwtUtil jwtUtil, CachingUserDetailsService userDetailsService, MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.meterRegistry = meterRegistry;
+        this.parseTimer = phaseTimer("parse");
+        this.userLoadTimer = phaseTimer("user_load");
+        this.validateTimer = phaseTimer("validate");
+    }
+
+    private Timer phaseTimer(String phase) {
+        return Timer.builder(PHASE_TIMER)
+                .description("Time JwtAuthFilter spends in each phase of authenticating a request")
+                .tag("phase", phase)
+                .register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -47,16 +82,34 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             String token = authHeader.substring(7);
             logger.trace("JWT token extracted from Authorization header");
             
-            String username = jwtUtil.extractUsername(token);
+            long start = System.nanoTime();
+            Claims claims = jwtUtil.extractClaims(token);
+            start = record(parseTimer, start);
+            String username = claims.getSubject();
             logger.debug("Extracted username '{}' from JWT token", username);
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 logger.debug("Attempting to authenticate user '{}'", username);
                 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                logger.trace("User details loaded for username '{}'", username);
-                
-                if (jwtUtil.isTokenValid(token, userDetails)) {
+                UserDetails userDetails;
+                if (statelessPrincipal && jwtUtil.hasPrincipalClaims(claims)) {
+                    if (jwtUtil.isRevoked(claims)) {
+                        countFailure("revoked");
+                        logger.warn("Revoked JWT token for user '{}' on request: {} {}", username, method, requestURI);
+                        filterChain.doFilter(request, response);
+                        return;
+                    }
+                    userDetails = jwtUtil.toUserDetails(claims);
+                    logger.trace("User details rebuilt from JWT claims for username '{}'", username);
+                } else {
+                    userDetails = userDetailsService.loadUserByUsername(username);
+                    logger.trace("User details loaded for username '{}'", username);
+                }
+                start = record(userLoadTimer, start);
+
+                boolean valid = jwtUtil.isTokenValid(claims, userDetails);
+                record(validateTimer, start);
+                if (valid) {
                     UsernamePasswordAuthenticationToken authToken = 
                         new UsernamePasswordAuthenticationToken(
                             userDetails, 
@@ -65,31 +118,50 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                         );
                     
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                    logger.info("User '{}' authenticated successfully for request: {} {} with authorities: {}", 
+                    logger.debug("User '{}' authenticated successfully for request: {} {} with authorities: {}", 
                                 username, method, requestURI, userDetails.getAuthorities());
                 } else {
+                    countFailure("invalid");
                     logger.warn("Invalid JWT token for user '{}' on request: {} {}", username, method, requestURI);
                 }
             } else if (username == null) {
+                countFailure("no_subject");
                 logger.warn("Could not extract username from JWT token for request: {} {}", method, requestURI);
             } else {
                 logger.trace("User '{}' already authenticated in security context", username);
             }
         } catch (io.jsonwebtoken.ExpiredJwtException e) {
+            countFailure("expired");
             logger.warn("Expired JWT token for request: {} {} - {}", method, requestURI, e.getMessage());
         } catch (io.jsonwebtoken.MalformedJwtException e) {
+            countFailure("malformed");
             logger.warn("Malformed JWT token for request: {} {} - {}", method, requestURI, e.getMessage());
         } catch (io.jsonwebtoken.UnsupportedJwtException e) {
+            countFailure("unsupported");
             logger.warn("Unsupported JWT token for request: {} {} - {}", method, requestURI, e.getMessage());
         } catch (io.jsonwebtoken.security.SignatureException e) {
+            countFailure("signature");
             logger.warn("Invalid JWT signature for request: {} {} - {}", method, requestURI, e.getMessage());
         } catch (IllegalArgumentException e) {
+            countFailure("illegal_argument");
             logger.warn("Invalid JWT token (illegal argument) for request: {} {} - {}", method, requestURI, e.getMessage());
         } catch (Exception e) {
+            countFailure("error");
             logger.error("Unexpected error during JWT authentication for request: {} {} - {}", 
                          method, requestURI, e.getMessage(), e);
         }
         
         filterChain.doFilter(request, response);
     }
+
+    // Records the time since start and returns now, the start of the next phase
+    private static long record(Timer timer, long start) {
+        long now = System.nanoTime();
+        timer.record(now - start, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    private void countFailure(String reason) {
+        meterRegistry.counter(FAILURE_COUNTER, "reason", reason).increment();
+    }
 }
\ No newline at end of file
@@ -1,14 +1,27 @@
 package com.example.demo.security;
 
-import java.security.Key;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 
+import javax.crypto.SecretKey;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.example.demo.model.Role;
 import com.example.demo.model.User;
+import com.example.demo.model.UserDetailImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -16,38 +29,121 @@ import io.jsonwebtoken.security.Keys;
 @Component
 public class JwtUtil {
 
-    private static final String SECRET = "mysecretkeymysecretkeymysecretkey12"; // min 32 chars
+    private static final long VERIFIED_TOKEN_CACHE_SIZE = 10_000;
+
+    static final String ROLE_CLAIM = "role";
+    static final String USER_ID_CLAIM = "uid";
+    static final String USER_VERSION_CLAIM = "ver";
+
+    // Derived once from jwt.secret; both are immutable and safe to share across request threads
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final long expirationMillis;
+    private final TokenRevocationHook revocationHook;
+
+    // Claims of tokens whose signature has already been checked, keyed by SHA-256 of the token.
+    // Each entry lives until the token's own "exp", so an expired token is always re-parsed and rejected.
+    private final Cache<String, Claims> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(VERIFIED_TOKEN_CACHE_SIZE)
+            .expireAfter(Expiry.creating((String digest, Claims claims) -> timeToExpiry(claims)))
+            .build();
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") long expirationMillis,
+                   TokenRevocationHook revocationHook) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)); // min 32 bytes
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.expirationMillis = expirationMillis;
+        this.revocationHook = revocationHook;
+    }
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET.getBytes());
+    /**
+     * Parse and verify a token, returning its claims. A token is parsed and HMAC-checked
+     * at most once while it is valid; later calls are served from the verified-token cache.
+     */
+    public Claims extractClaims(String token) {
+        String digest = digest(token);
+        Claims claims = verifiedTokens.getIfPresent(digest);
+        if (claims == null) {
+            claims = parseClaims(token);
+            verifiedTokens.put(digest, claims);
+        }
+        return claims;
     }
 
     public String extractUsername(String token) {
-        return parseClaims(token).getSubject();
+        return extractClaims(token).getSubject();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        return extractUsername(token).equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return isTokenValid(extractClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return parseClaims(token).getExpiration().before(new Date());
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims);
     }
 
-    private Claims parseClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Whether the principal can be rebuilt from these claims alone. Tokens issued before
+     * the "uid" claim existed return false and must go through the UserDetailsService.
+     */
+    public boolean hasPrincipalClaims(Claims claims) {
+        return claims.get(USER_ID_CLAIM) != null && claims.get(ROLE_CLAIM) != null;
     }
+
+    public boolean isRevoked(Claims claims) {
+        Long version = claims.get(USER_VERSION_CLAIM, Long.class);
+        return revocationHook.isRevoked(claims.get(USER_ID_CLAIM, Integer.class), version == null ? 0L : version);
+    }
+
+    /**
+     * Build the authenticated principal straight from signed claims, without a database
+     * lookup. The resulting User carries id, username and role only (no password or email).
+     */
+    public UserDetailImpl toUserDetails(Claims claims) {
+        User user = new User();
+        user.setId(claims.get(USER_ID_CLAIM, Integer.class));
+        user.setUsername(claims.getSubject());
+        user.setRole(Role.valueOf(claims.get(ROLE_CLAIM, String.class)));
+        return new UserDetailImpl(user);
+    }
+
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
+    }
+
+    // Uncached parse; package-private for the benchmarks
+    Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    private static Duration timeToExpiry(Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return Duration.ZERO;
+        }
+        return Duration.ofMillis(Math.max(0, expiration.getTime() - System.currentTimeMillis()));
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     public String generateToken(User user) {
-    return Jwts.builder()
-            .setSubject(user.getUsername())
-            .claim("role", user.getRole().name())
-            .setIssuedAt(new Date())
-            .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24)) // 24h
-            .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-            .compact();
-}
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(user.getUsername())
+                .claim(ROLE_CLAIM, user.getRole().name())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(USER_VERSION_CLAIM, revocationHook.currentVersion(user.getId()))
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expirationMillis))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
 }
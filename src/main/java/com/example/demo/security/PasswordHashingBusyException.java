@@ -0,0 +1,12 @@
+package com.example.demo.security;
+
+/**
+ * The password could not be hashed or checked because every hashing thread is busy and the
+ * queue in front of them is full. Callers answer 503 so the client retries later.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * A {@link DaoAuthenticationProvider} whose hash upgrade after a successful login is best-effort.
+ * The stock provider lets a failure of the upgrade's extra hash fail the login; here a
+ * {@link PasswordHashingBusyException} (the hashing pool filled up between
+ * {@link PasswordEncoder#upgradeEncoding(String)} and the rehash) keeps the old hash and the
+ * login succeeds. The user is upgraded on a later login.
+ */
+public class RehashingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(RehashingAuthenticationProvider.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final UserDetailsPasswordService passwordService;
+
+    public RehashingAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+                                           UserDetailsPasswordService passwordService) {
+        super(userDetailsService);
+        setPasswordEncoder(withoutUpgrades(passwordEncoder));
+        this.passwordEncoder = passwordEncoder;
+        this.passwordService = passwordService;
+    }
+
+    // The parent checks passwords with this but never upgrades them; that is done below
+    private static PasswordEncoder withoutUpgrades(PasswordEncoder encoder) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return encoder.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encoder.matches(rawPassword, encodedPassword);
+            }
+        };
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        UserDetails current = user;
+        if (user.getPassword() != null && passwordEncoder.upgradeEncoding(user.getPassword())) {
+            try {
+                String rehashed = passwordEncoder.encode(authentication.getCredentials().toString());
+                current = passwordService.updatePassword(user, rehashed);
+            } catch (PasswordHashingBusyException e) {
+                logger.debug("Hashing pool busy, keeping the current hash of {} for now", user.getUsername());
+            }
+        }
+        return super.createSuccessAuthentication(principal, authentication, current);
+    }
+}
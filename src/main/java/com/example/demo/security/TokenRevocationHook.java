@@ -0,0 +1,18 @@
+package com.example.demo.security;
+
+/**
+ * Decides whether a signed token is still acceptable for its user when the principal
+ * is rebuilt from claims instead of being reloaded from the database.
+ *
+ * Every token carries the user's version at issue time; bumping the version (on delete,
+ * demotion, password reset...) rejects all tokens issued before it.
+ */
+public interface TokenRevocationHook {
+
+    long currentVersion(Integer userId);
+
+    boolean isRevoked(Integer userId, long tokenVersion);
+
+    // Reject every token issued to this user so far
+    void revoke(Integer userId);
+}
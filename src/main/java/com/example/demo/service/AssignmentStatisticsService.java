@@ -0,0 +1,133 @@
+package com.example.demo.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.dto.AssignmentStatistics;
+import com.example.demo.dto.MarksCount;
+import com.example.demo.repository.SolutionRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Per-assignment grading statistics kept in memory, so dashboards never scan solutions.
+ *
+ * The aggregate is rebuilt from one grouped query on startup and then updated as solutions
+ * are submitted and graded. Changes made inside a transaction are applied after it commits,
+ * so rolled back work never shows up. Marks are bounded, so reading an assignment's
+ * statistics touches a small, fixed number of entries.
+ */
+@Service
+public class AssignmentStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssignmentStatisticsService.class);
+    static final int HISTOGRAM_BUCKET_WIDTH = 10;
+
+    private final SolutionRepository solutionRepository;
+    private final Map<Long, Aggregate> aggregates = new ConcurrentHashMap<>();
+
+    public AssignmentStatisticsService(SolutionRepository solutionRepository) {
+        this.solutionRepository = solutionRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        List<MarksCount> rows = solutionRepository.countByAssignmentAndMarks();
+        Map<Long, Aggregate> rebuilt = new ConcurrentHashMap<>();
+        for (MarksCount row : rows) {
+            Aggregate aggregate = rebuilt.computeIfAbsent(row.getAssignmentId(), id -> new Aggregate());
+            aggregate.addSubmissions(row.getCount());
+            if (row.getMarks() != null) {
+                aggregate.addMarks(row.getMarks(), row.getCount());
+            }
+        }
+        aggregates.clear();
+        aggregates.putAll(rebuilt);
+        logger.info("Assignment statistics rebuilt for {} assignments", rebuilt.size());
+    }
+
+    public void recordSubmission(Long assignmentId) {
+        recordSubmissions(assignmentId, 1);
+    }
+
+    public void recordSubmissions(Long assignmentId, long count) {
+        afterCommit(() -> aggregate(assignmentId).addSubmissions(count));
+    }
+
+    /** A solution's marks changed; null on either side means "not graded". */
+    public void recordMarks(Long assignmentId, Integer previousMarks, Integer marks) {
+        afterCommit(() -> aggregate(assignmentId).regrade(previousMarks, marks));
+    }
+
+    public AssignmentStatistics getStatistics(Long assignmentId) {
+        Aggregate aggregate = aggregates.get(assignmentId);
+        return aggregate == null
+                ? new AssignmentStatistics(assignmentId, 0, 0, null, null, null, new TreeMap<>())
+                : aggregate.snapshot(assignmentId);
+    }
+
+    private Aggregate aggregate(Long assignmentId) {
+        return aggregates.computeIfAbsent(assignmentId, id -> new Aggregate());
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    private static final class Aggregate {
+        private long submissions;
+        private long graded;
+        private long sum;
+        // marks -> number of graded solutions with those marks; gives min, max and the histogram
+        private final TreeMap<Integer, Long> markCounts = new TreeMap<>();
+
+        synchronized void addSubmissions(long count) {
+            submissions += count;
+        }
+
+        synchronized void addMarks(int marks, long count) {
+            graded += count;
+            sum += marks * count;
+            markCounts.merge(marks, count, Long::sum);
+        }
+
+        synchronized void regrade(Integer previousMarks, Integer marks) {
+            if (previousMarks != null) {
+                graded--;
+                sum -= previousMarks;
+                markCounts.computeIfPresent(previousMarks, (key, count) -> count == 1 ? null : count - 1);
+            }
+            if (marks != null) {
+                addMarks(marks, 1);
+            }
+        }
+
+        synchronized AssignmentStatistics snapshot(Long assignmentId) {
+            Map<Integer, Long> histogram = new TreeMap<>();
+            markCounts.forEach((marks, count) -> histogram.merge(
+                    Math.floorDiv(marks, HISTOGRAM_BUCKET_WIDTH) * HISTOGRAM_BUCKET_WIDTH, count, Long::sum));
+            return new AssignmentStatistics(assignmentId, submissions, graded,
+                    graded == 0 ? null : (double) sum / graded,
+                    markCounts.isEmpty() ? null : markCounts.firstKey(),
+                    markCounts.isEmpty() ? null : markCounts.lastKey(),
+                    histogram);
+        }
+    }
+}
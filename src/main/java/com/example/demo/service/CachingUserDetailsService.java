@@ -0,0 +1,102 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.model.UserDetailImpl;
+import com.example.demo.security.TokenRevocationHook;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.example.demo.model.UserDetailImpl;
+import com.example.demo.security.TokenRevocationHook;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Caching decorator around {@link UserDetailsServiceImpl}, used by both the login provider
+ * and the JWT filter. Entries are bounded in number and age; anything that changes an existing
+ * user (role or password change) must call {@link #invalidate(String)}, which also revokes the
+ * user's tokens so claims-based principals (jwt.stateless-principal) cannot outlive the change.
+ * A registration only needs {@link #evict(String)}.
+ * Hit/miss/eviction counts are published as the "userDetails" cache metrics. Misses are loaded
+ * on the calling thread outside the cache's locks (see {@link CallerThreadLoads}), so a request
+ * on a virtual thread does not pin its carrier while the user is read from the database.
+ */
+@Service
+public class CachingUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingUserDetailsService.class);
+
+    private final UserDetailsServiceImpl delegate;
+    private final TokenRevocationHook revocationHook;
+    private final AsyncCache<String, UserDetails> cache;
+
+    public CachingUserDetailsService(UserDetailsServiceImpl delegate,
+                                     TokenRevocationHook revocationHook,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${user-details.cache.max-size:10000}") long maxSize,
+                                     @Value("${user-details.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.delegate = delegate;
+        this.revocationHook = revocationHook;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetails");
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // Misses throw and are therefore never cached
+        return CallerThreadLoads.get(cache, username, delegate::loadUserByUsername);
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserDetails updated = delegate.updatePassword(user, newPassword);
+        evict(user.getUsername());
+        revoke(user);
+        return updated;
+    }
+
+    // Drops the cached entry and revokes the user's tokens after a role or password change
+    public void invalidate(String username) {
+        logger.debug("Invalidating cached user details and tokens for '{}'", username);
+        UserDetails user = cache.synchronous().getIfPresent(username);
+        evict(username);
+        if (user == null) {
+            try {
+                user = delegate.loadUserByUsername(username);
+            } catch (UsernameNotFoundException e) {
+                return;
+            }
+        }
+        revoke(user);
+    }
+
+    // Drops the cached entry only; enough for a user that has no tokens yet
+    public void evict(String username) {
+        logger.debug("Evicting cached user details for '{}'", username);
+        cache.synchronous().invalidate(username);
+    }
+
+    private void revoke(UserDetails user) {
+        UserDetails details = user instanceof UserDetailImpl ? user : delegate.loadUserByUsername(user.getUsername());
+        revocationHook.revoke(((UserDetailImpl) details).getUser().getId());
+    }
+
+    public void invalidateAll() {
+        logger.debug("Invalidating all cached user details");
+        cache.synchronous().invalidateAll();
+    }
+}
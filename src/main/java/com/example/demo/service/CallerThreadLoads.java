@@ -0,0 +1,58 @@
+package com.example.demo.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+/**
+ * Loads cache misses on the calling thread without holding a lock while the loader runs.
+ *
+ * A synchronous Caffeine cache calls its loader inside ConcurrentHashMap.compute, under a
+ * synchronized bin lock. On JDK 21 a virtual thread that blocks on I/O in there pins its carrier
+ * thread, and lookups of other keys in the same bin wait as well. Here a miss only inserts an
+ * incomplete future into an {@link AsyncCache}, and the caller then loads the value and completes
+ * it. Concurrent callers for the same key wait on that future; if the load fails it is not cached
+ * and each waiting caller loads for itself. Invalidating the key while it loads discards the result.
+ */
+final class CallerThreadLoads {
+
+    private CallerThreadLoads() {
+    }
+
+    static <K, V> V get(AsyncCache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        while (true) {
+            CompletableFuture<V> created = new CompletableFuture<>();
+            CompletableFuture<V> future = cache.get(key, (k, executor) -> created);
+            if (future == created) {
+                return load(created, key, loader);
+            }
+            V value = join(future);
+            if (value != null) {
+                return value;
+            }
+            // The load we waited for failed; try ourselves, as a caller of a synchronous cache would
+        }
+    }
+
+    private static <K, V> V load(CompletableFuture<V> created, K key, Function<? super K, ? extends V> loader) {
+        try {
+            V value = loader.apply(key);
+            created.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            // A null value drops the entry; failing the future would make Caffeine log every miss
+            created.complete(null);
+            throw e;
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.service;
+
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the external API circuit as actuator health component "externalApi". An open circuit
+ * is DEGRADED rather than DOWN: the application keeps serving (from cache where it can), so it
+ * must not be restarted or taken out of rotation because of the upstream.
+ */
+@Component("externalApi")
+public class ExternalApiHealthIndicator implements HealthIndicator {
+
+    static final String DEGRADED = "DEGRADED";
+
+    private final ExternalApiService externalApiService;
+
+    public ExternalApiHealthIndicator(ExternalApiService externalApiService) {
+        this.externalApiService = externalApiService;
+    }
+
+    @Override
+    public Health health() {
+        CircuitBreaker circuitBreaker = externalApiService.getCircuitBreaker();
+        CircuitBreaker.State state = circuitBreaker.getState();
+        Health.Builder builder = state == CircuitBreaker.State.CLOSED ? Health.up() : Health.status(DEGRADED);
+        return builder
+                .withDetail("circuit", circuitBreaker.getName())
+                .withDetail("state", state)
+                .withDetail("consecutiveFailures", circuitBreaker.getConsecutiveFailures())
+                .withDetail("maxConcurrentCalls", externalApiService.getMaxConcurrentCalls())
+                .withDetail("availableCalls", externalApiService.getAvailableCalls())
+                .build();
+    }
+}
@@ -1,31 +1,192 @@
 package com.example.demo.service;
 
 import com.example.demo.dto.ExternalDataDto;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+/**
+ * Posts from the external API, served through one response cache per client.
+ *
+ * Entries are keyed by endpoint and parameter and bounded by external.api.cache.max-size.
+ * After external.api.cache.refresh-seconds the next read still gets the cached response while
+ * a reload runs in the background (stale-while-revalidate); after external.api.cache.ttl-seconds
+ * an entry is dropped and the next read waits for the upstream. Concurrent misses for the same
+ * key share a single upstream call. Hit/miss counts are published as the "externalApi" cache
+ * metrics, tagged by client, and every upstream call is timed as external.api.upstream
+ * {client, endpoint, outcome}.
+ *
+ * Single-post misses go through a {@link PostBatchLoader} per client, so posts requested within
+ * external.api.batch.window-millis of each other are fetched with one /posts?id=..&id=.. call.
+ *
+ * Every upstream call passes a bulkhead (at most external.api.bulkhead.max-concurrent calls in
+ * flight, others are refused at once) and a {@link CircuitBreaker} shared by both clients.
+ * Callers wait at most external.api.call-timeout-millis. When a call is refused, times out or
+ * fails on the upstream side, the last good response for the same key is served if there is one;
+ * otherwise the caller gets an error (an {@link ExternalApiUnavailableException} when the call
+ * was never made or timed out).
+ *
+ * The WebClient list methods stream: a cached list is emitted element by element without
+ * copying, and on a miss posts are decoded and emitted as the upstream sends them, with demand
+ * propagated to the connection. The miss is registered in the cache while it streams, so concurrent
+ * requests for the same list wait for it rather than opening streams of their own. It is cut off
+ * when the first post, or any later one, takes longer than external.api.call-timeout-millis to
+ * arrive; a list that keeps flowing may take longer in total. The streamed posts then become
+ * the cache entry, unless the response is larger than MAX_STREAMED_CACHE_ENTRIES posts, in which
+ * case it is only streamed. A stream cancelled by its subscriber is neither cached nor counted
+ * as a success or failure by the circuit breaker.
+ */
 @Service
 public class ExternalApiService {
 
     private static final Logger logger = LoggerFactory.getLogger(ExternalApiService.class);
-    private static final String BASE_URL = "https://jsonplaceholder.typicode.com";
+    private static final int REFRESH_THREADS = 4;
+    private static final int FETCH_THREADS = 4;
+    private static final String UPSTREAM_NAME = "external-api";
+    private static final String UPSTREAM_TIMER = "external.api.upstream";
+    private static final String REST_TEMPLATE = "restTemplate";
+    private static final String WEB_CLIENT = "webClient";
+    // Upper bound on the posts a streamed response may hold in memory on its way into the cache
+    private static final int MAX_STREAMED_CACHE_ENTRIES = 10_000;
+    private static final ParameterizedTypeReference<List<ExternalDataDto>> POST_LIST =
+            new ParameterizedTypeReference<List<ExternalDataDto>>() {};
 
-    @Autowired
-    private RestTemplate restTemplate;
+    private enum Endpoint { ALL_POSTS, POST_BY_ID, POSTS_BY_USER }
 
-    @Autowired
-    private WebClient webClient;
+    // param is null for endpoints without one
+    private record CacheKey(Endpoint endpoint, Long param) {
+    }
+
+    // Both clients resolve relative paths against external.api.base-url (see RestTemplateConfig)
+    private final RestTemplate restTemplate;
+    private final WebClient webClient;
+    // RestTemplate reloads block, so they get their own threads rather than the common pool.
+    // Both executors start a virtual thread per task when spring.threads.virtual.enabled is set.
+    private final ExecutorService refreshExecutor;
+    // Runs batched RestTemplate fetches; separate from refreshExecutor, whose threads wait on them
+    private final ExecutorService fetchExecutor;
+    private final ScheduledExecutorService batchScheduler;
+    private final PostBatchLoader restTemplateBatchLoader;
+    private final PostBatchLoader webClientBatchLoader;
+    private final AsyncLoadingCache<CacheKey, Object> restTemplateCache;
+    private final AsyncLoadingCache<CacheKey, Object> webClientCache;
+    // Last successful response per key, kept past the cache TTL as the fallback
+    private final Cache<CacheKey, Object> lastGoodResponses;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final int maxConcurrentCalls;
+    private final Duration callTimeout;
+    private final MeterRegistry meterRegistry;
+
+    public ExternalApiService(RestTemplate restTemplate,
+                              WebClient webClient,
+                              MeterRegistry meterRegistry,
+                              @Value("${external.api.cache.max-size:1000}") long maxSize,
+                              @Value("${external.api.cache.refresh-seconds:60}") long refreshSeconds,
+                              @Value("${external.api.cache.ttl-seconds:600}") long ttlSeconds,
+                              @Value("${external.api.batch.max-size:50}") int batchMaxSize,
+                              @Value("${external.api.batch.window-millis:5}") long batchWindowMillis,
+                              @Value("${external.api.call-timeout-millis:8000}") long callTimeoutMillis,
+                              @Value("${external.api.breaker.failure-threshold:5}") int failureThreshold,
+                              @Value("${external.api.breaker.open-seconds:30}") long openSeconds,
+                              @Value("${external.api.bulkhead.max-concurrent:20}") int maxConcurrentCalls,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.restTemplate = restTemplate;
+        this.webClient = webClient;
+        this.circuitBreaker = new CircuitBreaker(UPSTREAM_NAME, failureThreshold, Duration.ofSeconds(openSeconds));
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.callTimeout = Duration.ofMillis(callTimeoutMillis);
+        this.meterRegistry = meterRegistry;
+        this.lastGoodResponses = Caffeine.newBuilder().maximumSize(maxSize).build();
+        this.refreshExecutor = newBlockingExecutor("external-api-refresh-", REFRESH_THREADS, virtualThreads);
+        this.fetchExecutor = newBlockingExecutor("external-api-fetch-", FETCH_THREADS, virtualThreads);
+        this.batchScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("external-api-batch").daemon().factory());
+        Duration batchWindow = Duration.ofMillis(batchWindowMillis);
+        this.restTemplateBatchLoader = new PostBatchLoader("RestTemplate", this::fetchBatchWithRestTemplate,
+                batchMaxSize, batchWindow, batchScheduler);
+        this.webClientBatchLoader = new PostBatchLoader("WebClient", this::fetchBatchWithWebClient,
+                batchMaxSize, batchWindow, batchScheduler);
+
+        this.restTemplateCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .executor(refreshExecutor)
+                .recordStats()
+                .buildAsync(this::fetchWithRestTemplate);
+        this.webClientCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync((key, executor) -> fetchWithWebClient(key));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, restTemplateCache, "externalApi", "client", REST_TEMPLATE);
+        CaffeineCacheMetrics.monitor(meterRegistry, webClientCache, "externalApi", "client", WEB_CLIENT);
+    }
+
+    private static ExecutorService newBlockingExecutor(String namePrefix, int threads, boolean virtualThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
+        }
+        return Executors.newFixedThreadPool(threads, Thread.ofPlatform().name(namePrefix, 0).daemon().factory());
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public int getAvailableCalls() {
+        return bulkhead.availablePermits();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        batchScheduler.shutdownNow();
+        fetchExecutor.shutdownNow();
+        refreshExecutor.shutdownNow();
+    }
 
     // ============================================
     // RestTemplate Methods (Synchronous)
@@ -36,18 +197,14 @@ public class ExternalApiService {
      */
     public List<ExternalDataDto> getAllPostsRestTemplate() {
         logger.info("Fetching all posts using RestTemplate");
-        String url = BASE_URL + "/posts";
-        
         try {
-            ResponseEntity<List<ExternalDataDto>> response = restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<List<ExternalDataDto>>() {}
-            );
-            
-            logger.info("Successfully fetched {} posts", response.getBody().size());
-            return response.getBody();
+            List<ExternalDataDto> posts = cachedRestTemplate(new CacheKey(Endpoint.ALL_POSTS, null));
+            logger.info("Successfully fetched {} posts", posts.size());
+            return posts;
+        } catch (ExternalApiUnavailableException e) {
+            // Not wrapped, so the controller can answer 503 instead of 500
+            logger.warn("Posts unavailable: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("Error fetching posts with RestTemplate: {}", e.getMessage());
             throw new RuntimeException("Failed to fetch posts", e);
@@ -59,12 +216,13 @@ public class ExternalApiService {
      */
     public ExternalDataDto getPostByIdRestTemplate(Long id) {
         logger.info("Fetching post with ID: {} using RestTemplate", id);
-        String url = BASE_URL + "/posts/" + id;
-        
         try {
-            ExternalDataDto post = restTemplate.getForObject(url, ExternalDataDto.class);
+            ExternalDataDto post = cachedRestTemplate(new CacheKey(Endpoint.POST_BY_ID, id));
             logger.info("Successfully fetched post: {}", post.getTitle());
             return post;
+        } catch (ExternalApiUnavailableException e) {
+            logger.warn("Post {} unavailable: {}", id, e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("Error fetching post {} with RestTemplate: {}", id, e.getMessage());
             throw new RuntimeException("Failed to fetch post with ID: " + id, e);
@@ -76,18 +234,13 @@ public class ExternalApiService {
      */
     public List<ExternalDataDto> getPostsByUserIdRestTemplate(Long userId) {
         logger.info("Fetching posts for user ID: {} using RestTemplate", userId);
-        String url = BASE_URL + "/posts?userId=" + userId;
-        
         try {
-            ResponseEntity<List<ExternalDataDto>> response = restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<List<ExternalDataDto>>() {}
-            );
-            
-            logger.info("Successfully fetched {} posts for user {}", response.getBody().size(), userId);
-            return response.getBody();
+            List<ExternalDataDto> posts = cachedRestTemplate(new CacheKey(Endpoint.POSTS_BY_USER, userId));
+            logger.info("Successfully fetched {} posts for user {}", posts.size(), userId);
+            return posts;
+        } catch (ExternalApiUnavailableException e) {
+            logger.warn("Posts for user {} unavailable: {}", userId, e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("Error fetching posts for user {} with RestTemplate: {}", userId, e.getMessage());
             throw new RuntimeException("Failed to fetch posts for user: " + userId, e);
@@ -99,15 +252,15 @@ public class ExternalApiService {
     // ============================================
 
     /**
-     * Fetch all posts using WebClient (Reactive)
+     * Stream all posts using WebClient (Reactive)
      */
     public Flux<ExternalDataDto> getAllPostsWebClient() {
         logger.info("Fetching all posts using WebClient");
-        
-        return webClient.get()
-                .uri("/posts")
-                .retrieve()
-                .bodyToFlux(ExternalDataDto.class)
+
+        return streamWebClient(new CacheKey(Endpoint.ALL_POSTS, null), () -> webClient.get()
+                    .uri("/posts")
+                    .retrieve()
+                    .bodyToFlux(ExternalDataDto.class))
                 .doOnComplete(() -> logger.info("Successfully fetched all posts"))
                 .doOnError(e -> logger.error("Error fetching posts with WebClient: {}", e.getMessage()));
     }
@@ -117,43 +270,365 @@ public class ExternalApiService {
      */
     public Mono<ExternalDataDto> getPostByIdWebClient(Long id) {
         logger.info("Fetching post with ID: {} using WebClient", id);
-        
-        return webClient.get()
-                .uri("/posts/{id}", id)
-                .retrieve()
-                .bodyToMono(ExternalDataDto.class)
+
+        return this.<ExternalDataDto>cachedWebClient(new CacheKey(Endpoint.POST_BY_ID, id))
                 .doOnSuccess(post -> logger.info("Successfully fetched post: {}", post.getTitle()))
                 .doOnError(e -> logger.error("Error fetching post {} with WebClient: {}", id, e.getMessage()));
     }
 
     /**
-     * Fetch posts by user ID using WebClient (Reactive)
+     * Stream posts by user ID using WebClient (Reactive)
      */
     public Flux<ExternalDataDto> getPostsByUserIdWebClient(Long userId) {
         logger.info("Fetching posts for user ID: {} using WebClient", userId);
-        
-        return webClient.get()
-                .uri(uriBuilder -> uriBuilder
-                    .path("/posts")
-                    .queryParam("userId", userId)
-                    .build())
-                .retrieve()
-                .bodyToFlux(ExternalDataDto.class)
+
+        return streamWebClient(new CacheKey(Endpoint.POSTS_BY_USER, userId), () -> webClient.get()
+                    .uri(uriBuilder -> uriBuilder
+                        .path("/posts")
+                        .queryParam("userId", userId)
+                        .build())
+                    .retrieve()
+                    .bodyToFlux(ExternalDataDto.class))
                 .doOnComplete(() -> logger.info("Successfully fetched posts for user {}", userId))
                 .doOnError(e -> logger.error("Error fetching posts for user {} with WebClient: {}", userId, e.getMessage()));
     }
 
-    /**
-     * Fetch posts synchronously from WebClient (blocking)
-     */
-    public List<ExternalDataDto> getAllPostsWebClientBlocking() {
-        logger.info("Fetching all posts using WebClient (blocking)");
-        
-        return webClient.get()
-                .uri("/posts")
+    // ============================================
+    // Cache plumbing
+    // ============================================
+
+    // Misses load on the caller's thread; reloads after refresh-seconds run on refreshExecutor
+    @SuppressWarnings("unchecked")
+    private <T> T cachedRestTemplate(CacheKey key) {
+        return (T) CallerThreadLoads.get(restTemplateCache, key, this::fetchWithRestTemplate);
+    }
+
+    // Looked up per subscription; a cancelled subscriber must not cancel a load other callers share
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> cachedWebClient(CacheKey key) {
+        return Mono.defer(() -> Mono.fromFuture(webClientCache.get(key), true)).map(value -> (T) value);
+    }
+
+    // A cached list is replayed. On a miss the first subscriber registers its load in the cache and
+    // streams the upstream; concurrent subscribers for the same key wait for that load instead of
+    // opening their own stream.
+    @SuppressWarnings("unchecked")
+    private Flux<ExternalDataDto> streamWebClient(CacheKey key, Supplier<Flux<ExternalDataDto>> upstream) {
+        return Flux.defer(() -> {
+            CompletableFuture<Object> cached = webClientCache.getIfPresent(key);
+            if (cached == null) {
+                CompletableFuture<Object> load = new CompletableFuture<>();
+                cached = webClientCache.asMap().putIfAbsent(key, load);
+                if (cached == null) {
+                    return streamAndCache(key, load, upstream);
+                }
+            }
+            return Mono.fromFuture(cached, true)
+                    .flatMapIterable(posts -> (List<ExternalDataDto>) posts)
+                    .onErrorResume(error -> {
+                        if (unwrap(error) instanceof StreamNotCachedException notCached) {
+                            // The stream we waited for was cancelled or is too large to share
+                            return notCached.oversized ? streamUncached(key, upstream) : streamWebClient(key, upstream);
+                        }
+                        return Flux.fromIterable((List<ExternalDataDto>) fallback(key, error));
+                    });
+        });
+    }
+
+    // Streams a miss and completes the registered load with the posts, or fails it so waiters move on
+    @SuppressWarnings("unchecked")
+    private Flux<ExternalDataDto> streamAndCache(CacheKey key, CompletableFuture<Object> load,
+                                                 Supplier<Flux<ExternalDataDto>> upstream) {
+        logger.debug("Cache miss for {}, streaming from upstream using WebClient", key);
+        AtomicBoolean started = new AtomicBoolean();
+        // Dropped once the list outgrows MAX_STREAMED_CACHE_ENTRIES; such responses are not cached
+        AtomicReference<List<ExternalDataDto>> received = new AtomicReference<>(new ArrayList<>());
+        return guardedFlux(WEB_CLIENT, key.endpoint(), () -> withIdleTimeout(upstream.get()))
+                .doOnNext(post -> {
+                    started.set(true);
+                    List<ExternalDataDto> posts = received.get();
+                    if (posts == null) {
+                        return;
+                    }
+                    if (posts.size() < MAX_STREAMED_CACHE_ENTRIES) {
+                        posts.add(post);
+                    } else {
+                        logger.debug("Response for {} exceeds {} posts, not caching it", key,
+                                MAX_STREAMED_CACHE_ENTRIES);
+                        received.set(null);
+                        failLoad(key, load, new StreamNotCachedException(true));
+                    }
+                })
+                .doOnComplete(() -> {
+                    List<ExternalDataDto> posts = received.get();
+                    if (posts != null) {
+                        posts = List.copyOf(posts);
+                        rememberGood(key, posts);
+                        load.complete(posts);
+                    }
+                })
+                .doOnError(error -> failLoad(key, load, error))
+                .doOnCancel(() -> failLoad(key, load, new StreamNotCachedException(false)))
+                // Only before the first element; a stream that already started cannot be replaced
+                .onErrorResume(error -> !started.get(), error -> Flux.fromIterable(
+                        (List<ExternalDataDto>) fallback(key, error)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Flux<ExternalDataDto> streamUncached(CacheKey key, Supplier<Flux<ExternalDataDto>> upstream) {
+        AtomicBoolean started = new AtomicBoolean();
+        return guardedFlux(WEB_CLIENT, key.endpoint(), () -> withIdleTimeout(upstream.get()))
+                .doOnNext(post -> started.set(true))
+                .onErrorResume(error -> !started.get(), error -> Flux.fromIterable(
+                        (List<ExternalDataDto>) fallback(key, error)));
+    }
+
+    // Removed before it completes, so a retrying waiter does not find the failed load again
+    private void failLoad(CacheKey key, CompletableFuture<Object> load, Throwable error) {
+        webClientCache.asMap().remove(key, load);
+        load.completeExceptionally(error);
+    }
+
+    // The first post must arrive within callTimeout, and each later one within callTimeout of the
+    // previous, so a stalled upstream is cut off but a long, steadily flowing list is not
+    private <T> Flux<T> withIdleTimeout(Flux<T> flux) {
+        return flux.timeout(callTimeout);
+    }
+
+    // Completes a streamed load that did not produce a cache entry; carries no stack trace
+    private static final class StreamNotCachedException extends RuntimeException {
+
+        private final boolean oversized;
+
+        StreamNotCachedException(boolean oversized) {
+            super(oversized ? "Response too large to cache" : "Stream cancelled", null, false, false);
+            this.oversized = oversized;
+        }
+    }
+
+    private Object fetchWithRestTemplate(CacheKey key) {
+        logger.debug("Cache miss or refresh for {} using RestTemplate", key);
+        try {
+            Object value = switch (key.endpoint()) {
+                case ALL_POSTS -> guarded(REST_TEMPLATE, key.endpoint(), () -> List.copyOf(
+                        restTemplate.exchange("/posts", HttpMethod.GET, null, POST_LIST).getBody()));
+                case POST_BY_ID -> await(restTemplateBatchLoader.load(key.param()));
+                case POSTS_BY_USER -> guarded(REST_TEMPLATE, key.endpoint(), () -> List.copyOf(
+                        restTemplate.exchange("/posts?userId={userId}", HttpMethod.GET, null, POST_LIST,
+                                key.param()).getBody()));
+            };
+            rememberGood(key, value);
+            return value;
+        } catch (RuntimeException e) {
+            return fallback(key, e);
+        }
+    }
+
+    private CompletableFuture<Object> fetchWithWebClient(CacheKey key) {
+        logger.debug("Cache miss or refresh for {} using WebClient", key);
+        CompletableFuture<?> response = switch (key.endpoint()) {
+            case ALL_POSTS -> guardedAsync(WEB_CLIENT, key.endpoint(), () -> webClient.get()
+                    .uri("/posts")
+                    .retrieve()
+                    .bodyToFlux(ExternalDataDto.class)
+                    .collectList()
+                    .map(List::copyOf)
+                    .toFuture());
+            case POST_BY_ID -> webClientBatchLoader.load(key.param());
+            case POSTS_BY_USER -> guardedAsync(WEB_CLIENT, key.endpoint(), () -> webClient.get()
+                    .uri(uriBuilder -> uriBuilder
+                        .path("/posts")
+                        .queryParam("userId", key.param())
+                        .build())
+                    .retrieve()
+                    .bodyToFlux(ExternalDataDto.class)
+                    .collectList()
+                    .map(List::copyOf)
+                    .toFuture());
+        };
+        return response
+                .orTimeout(callTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((value, error) -> {
+                    if (error != null) {
+                        return fallback(key, error);
+                    }
+                    rememberGood(key, value);
+                    return value;
+                });
+    }
+
+    private CompletableFuture<List<ExternalDataDto>> fetchBatchWithRestTemplate(List<Long> ids) {
+        String uri = UriComponentsBuilder.fromPath("/posts").queryParam("id", ids.toArray()).toUriString();
+        return guardedAsync(REST_TEMPLATE, Endpoint.POST_BY_ID, () -> CompletableFuture.supplyAsync(
+                () -> restTemplate.exchange(uri, HttpMethod.GET, null, POST_LIST).getBody(), fetchExecutor));
+    }
+
+    private CompletableFuture<List<ExternalDataDto>> fetchBatchWithWebClient(List<Long> ids) {
+        return guardedAsync(WEB_CLIENT, Endpoint.POST_BY_ID, () -> webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                    .path("/posts")
+                    .queryParam("id", ids.toArray())
+                    .build())
                 .retrieve()
                 .bodyToFlux(ExternalDataDto.class)
                 .collectList()
-                .block(); // Converts reactive to blocking
+                .toFuture());
+    }
+
+    // ============================================
+    // Resilience: bulkhead, circuit breaker, fallback
+    // ============================================
+
+    private <T> T guarded(String client, Endpoint endpoint, Supplier<T> call) {
+        acquirePermission();
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            recordOutcome(client, endpoint, start, null);
+            return result;
+        } catch (RuntimeException e) {
+            recordOutcome(client, endpoint, start, e);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private <T> CompletableFuture<T> guardedAsync(String client, Endpoint endpoint, Supplier<CompletableFuture<T>> call) {
+        try {
+            acquirePermission();
+        } catch (ExternalApiUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            recordOutcome(client, endpoint, start, e);
+            bulkhead.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((value, error) -> {
+            recordOutcome(client, endpoint, start, error);
+            bulkhead.release();
+        });
+    }
+
+    // The permit is held until the stream completes, fails or is cancelled by the subscriber
+    private <T> Flux<T> guardedFlux(String client, Endpoint endpoint, Supplier<Flux<T>> call) {
+        try {
+            acquirePermission();
+        } catch (ExternalApiUnavailableException e) {
+            return Flux.error(e);
+        }
+        long start = System.nanoTime();
+        AtomicBoolean finished = new AtomicBoolean();
+        Consumer<Throwable> finish = error -> {
+            if (finished.compareAndSet(false, true)) {
+                recordOutcome(client, endpoint, start, error);
+                bulkhead.release();
+            }
+        };
+        // A subscriber that walked away tells nothing about the upstream's health
+        Runnable cancel = () -> {
+            if (finished.compareAndSet(false, true)) {
+                circuitBreaker.releasePermission();
+                recordTime(client, endpoint, "cancelled", start);
+                bulkhead.release();
+            }
+        };
+        try {
+            return call.get()
+                    .doOnComplete(() -> finish.accept(null))
+                    .doOnError(finish)
+                    .doOnCancel(cancel);
+        } catch (RuntimeException e) {
+            finish.accept(e);
+            return Flux.error(e);
+        }
+    }
+
+    private void acquirePermission() {
+        if (!bulkhead.tryAcquire()) {
+            throw new ExternalApiUnavailableException(
+                    "More than " + maxConcurrentCalls + " concurrent calls to " + UPSTREAM_NAME);
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.release();
+            throw new ExternalApiUnavailableException("Circuit '" + UPSTREAM_NAME + "' is open");
+        }
+    }
+
+    // Calls refused by the bulkhead or the breaker never reach the upstream and are not timed
+    private void recordOutcome(String client, Endpoint endpoint, long start, Throwable error) {
+        String outcome;
+        if (error == null) {
+            outcome = "success";
+            circuitBreaker.onSuccess();
+        } else if (!isUpstreamFailure(error)) {
+            outcome = "client_error";
+            circuitBreaker.onSuccess();
+        } else {
+            outcome = unwrap(error) instanceof TimeoutException ? "timeout" : "failure";
+            circuitBreaker.onFailure();
+        }
+        recordTime(client, endpoint, outcome, start);
+    }
+
+    private void recordTime(String client, Endpoint endpoint, String outcome, long start) {
+        meterRegistry.timer(UPSTREAM_TIMER, "client", client, "endpoint", endpoint.name().toLowerCase(Locale.ROOT),
+                "outcome", outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ExternalApiUnavailableException(
+                    "No response from " + UPSTREAM_NAME + " within " + callTimeout.toMillis() + " ms");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExternalApiUnavailableException("Interrupted while waiting for " + UPSTREAM_NAME);
+        }
+    }
+
+    private void rememberGood(CacheKey key, Object value) {
+        if (value != null) {
+            lastGoodResponses.put(key, value);
+        }
+    }
+
+    private Object fallback(CacheKey key, Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof TimeoutException) {
+            cause = new ExternalApiUnavailableException(
+                    "No response from " + UPSTREAM_NAME + " within " + callTimeout.toMillis() + " ms");
+        }
+        Object lastGood = isUpstreamFailure(cause) ? lastGoodResponses.getIfPresent(key) : null;
+        if (lastGood == null) {
+            throw cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+        }
+        logger.warn("Serving last good response for {} after upstream failure: {}", key, cause.getMessage());
+        return lastGood;
+    }
+
+    // 4xx answers and unknown ids mean the upstream is up; they neither trip the breaker nor fall back
+    private static boolean isUpstreamFailure(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof NoSuchElementException || cause instanceof HttpClientErrorException) {
+            return false;
+        }
+        return !(cause instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError());
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
     }
-}
\ No newline at end of file
+}
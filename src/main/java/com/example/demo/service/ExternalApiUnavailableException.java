@@ -0,0 +1,12 @@
+package com.example.demo.service;
+
+/**
+ * The external API call was not attempted (circuit open, bulkhead full) or did not finish in
+ * time, and there was no earlier response to fall back to.
+ */
+public class ExternalApiUnavailableException extends RuntimeException {
+
+    public ExternalApiUnavailableException(String message) {
+        super(message);
+    }
+}
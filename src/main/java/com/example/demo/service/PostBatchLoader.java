@@ -0,0 +1,134 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.demo.dto.ExternalDataDto;
+
+/**
+ * Micro-batches single-post lookups. Ids requested within one window (or until maxBatchSize
+ * distinct ids are waiting) are fetched with a single list request, and each caller's future
+ * is completed from that response. Requests for an id that is already waiting share its future.
+ * An id missing from the response fails with {@link NoSuchElementException}; a failed fetch
+ * fails every caller in the batch.
+ */
+public class PostBatchLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostBatchLoader.class);
+
+    private final String name;
+    private final Function<List<Long>, CompletableFuture<List<ExternalDataDto>>> fetcher;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final ScheduledExecutorService scheduler;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<Long, CompletableFuture<ExternalDataDto>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * @param fetcher fetches the posts with the given ids in one upstream call; must not block the caller
+     */
+    public PostBatchLoader(String name,
+                           Function<List<Long>, CompletableFuture<List<ExternalDataDto>>> fetcher,
+                           int maxBatchSize,
+                           Duration window,
+                           ScheduledExecutorService scheduler) {
+        this.name = name;
+        this.fetcher = fetcher;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = window.toNanos();
+        this.scheduler = scheduler;
+    }
+
+    public CompletableFuture<ExternalDataDto> load(Long id) {
+        Map<Long, CompletableFuture<ExternalDataDto>> full = null;
+        CompletableFuture<ExternalDataDto> future;
+        lock.lock();
+        try {
+            future = pending.get(id);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            pending.put(id, future);
+            if (pending.size() >= maxBatchSize) {
+                full = takePending();
+            } else if (pending.size() == 1) {
+                scheduledFlush = scheduler.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    private void flush() {
+        Map<Long, CompletableFuture<ExternalDataDto>> batch;
+        lock.lock();
+        try {
+            batch = takePending();
+        } finally {
+            lock.unlock();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    // Caller holds the lock
+    private Map<Long, CompletableFuture<ExternalDataDto>> takePending() {
+        Map<Long, CompletableFuture<ExternalDataDto>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<ExternalDataDto>> batch) {
+        List<Long> ids = new ArrayList<>(batch.keySet());
+        logger.debug("Fetching a batch of {} posts using {}", ids.size(), name);
+        CompletableFuture<List<ExternalDataDto>> response;
+        try {
+            response = fetcher.apply(ids);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenComplete((posts, error) -> {
+            if (error != null) {
+                batch.values().forEach(future -> future.completeExceptionally(error));
+                return;
+            }
+            Map<Long, ExternalDataDto> byId = new LinkedHashMap<>();
+            for (ExternalDataDto post : posts) {
+                byId.put(post.getId(), post);
+            }
+            batch.forEach((id, future) -> {
+                ExternalDataDto post = byId.get(id);
+                if (post != null) {
+                    future.complete(post);
+                } else {
+                    future.completeExceptionally(new NoSuchElementException("Post not found: " + id));
+                }
+            });
+        });
+    }
+}
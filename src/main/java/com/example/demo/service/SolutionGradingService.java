@@ -0,0 +1,134 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.dto.BulkItemResult;
+import com.example.demo.dto.MarksRequest;
+
+/**
+ * Applies marks to many solutions without loading them: one parameterized UPDATE sent as a
+ * JDBC batch per chunk, with the per-statement update counts telling which ids exist.
+ * The graded rows are locked and their current marks read first (one select per chunk)
+ * so the assignment statistics can be adjusted without reloading anything afterwards, and so
+ * concurrent gradings of the same solution each replace the marks the other one wrote.
+ */
+@Service
+public class SolutionGradingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SolutionGradingService.class);
+    private static final String UPDATE_MARKS_SQL = "update solution set marks = ? where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AssignmentStatisticsService statisticsService;
+    private final int batchSize;
+
+    public SolutionGradingService(JdbcTemplate jdbcTemplate,
+                                  AssignmentStatisticsService statisticsService,
+                                  @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statisticsService = statisticsService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * The assignment of a solution and the marks it had before it was graded.
+     */
+    public record GradedRow(Long assignmentId, Integer marks) {
+    }
+
+    /**
+     * Grade one solution, under the same row lock as {@link #gradeAll(List)}.
+     *
+     * @return the solution's assignment and previous marks, or empty if there is no such solution
+     */
+    @Transactional
+    public Optional<GradedRow> grade(Long solutionId, Integer marks) {
+        GradedRow row = lockGradedRows(List.of(solutionId)).get(solutionId);
+        if (row == null) {
+            return Optional.empty();
+        }
+        jdbcTemplate.update(UPDATE_MARKS_SQL, marks, solutionId);
+        statisticsService.recordMarks(row.assignmentId(), row.marks(), marks);
+        return Optional.of(row);
+    }
+
+    @Transactional
+    public List<BulkItemResult> gradeAll(List<MarksRequest> requests) {
+        List<BulkItemResult> results = new ArrayList<>(requests.size());
+        List<Integer> validIndexes = new ArrayList<>(requests.size());
+        List<MarksRequest> valid = new ArrayList<>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            MarksRequest request = requests.get(i);
+            if (request == null || request.getSolutionId() == null || request.getMarks() == null) {
+                results.add(new BulkItemResult(i, null, BulkItemResult.Status.INVALID,
+                        "solutionId and marks are required"));
+            } else {
+                results.add(null);
+                validIndexes.add(i);
+                valid.add(request);
+            }
+        }
+
+        Map<Long, GradedRow> current = lockGradedRows(valid.stream().map(MarksRequest::getSolutionId).toList());
+
+        // The rows are locked, so the ids found here are the ones the update will hit; update
+        // counts are not used since drivers may report SUCCESS_NO_INFO (-2) instead
+        List<MarksRequest> found = valid.stream()
+                .filter(request -> current.containsKey(request.getSolutionId()))
+                .toList();
+        jdbcTemplate.batchUpdate(UPDATE_MARKS_SQL, found, batchSize, (ps, request) -> {
+            ps.setInt(1, request.getMarks());
+            ps.setLong(2, request.getSolutionId());
+        });
+
+        int updated = 0;
+        for (int position = 0; position < valid.size(); position++) {
+            int index = validIndexes.get(position);
+            Long solutionId = valid.get(position).getSolutionId();
+            GradedRow row = current.get(solutionId);
+            if (row == null) {
+                results.set(index, new BulkItemResult(index, solutionId, BulkItemResult.Status.NOT_FOUND,
+                        "Solution not found: " + solutionId));
+                continue;
+            }
+            results.set(index, new BulkItemResult(index, solutionId, BulkItemResult.Status.UPDATED, null));
+            updated++;
+            int marks = valid.get(position).getMarks();
+            statisticsService.recordMarks(row.assignmentId(), row.marks(), marks);
+            // The same solution may be graded twice in one request
+            current.put(solutionId, new GradedRow(row.assignmentId(), marks));
+        }
+
+        logger.info("Bulk grading: {} of {} solutions updated", updated, requests.size());
+        return results;
+    }
+
+    // Current assignment and marks of the solutions about to be graded, locked until commit
+    private Map<Long, GradedRow> lockGradedRows(List<Long> solutionIds) {
+        List<Long> ids = solutionIds.stream().distinct().toList();
+        Map<Long, GradedRow> rows = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            String sql = "select id, assignment_id, marks from solution where id in ("
+                    + String.join(",", Collections.nCopies(chunk.size(), "?")) + ") for update";
+            jdbcTemplate.query(sql, rs -> {
+                rows.put(rs.getLong("id"),
+                        new GradedRow(rs.getLong("assignment_id"), rs.getObject("marks", Integer.class)));
+            }, chunk.toArray());
+        }
+        return rows;
+    }
+}
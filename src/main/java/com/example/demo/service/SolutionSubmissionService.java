@@ -0,0 +1,144 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.dto.BulkItemResult;
+import com.example.demo.dto.SolutionRequest;
+import com.example.demo.model.Assignment;
+import com.example.demo.model.Solution;
+import com.example.demo.model.User;
+import com.example.demo.repository.AssignmentRepository;
+import com.example.demo.repository.SolutionRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Persists many solutions in one transaction. Assignment ids are checked with a single
+ * query, solutions reference assignments and the student by proxy (no selects), and the
+ * persistence context is flushed every jdbc batch so inserts go out as JDBC batches.
+ */
+@Service
+public class SolutionSubmissionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SolutionSubmissionService.class);
+
+    private final AssignmentRepository assignmentRepository;
+    private final SolutionRepository solutionRepository;
+    private final AssignmentStatisticsService statisticsService;
+    private final int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public SolutionSubmissionService(AssignmentRepository assignmentRepository,
+                                     SolutionRepository solutionRepository,
+                                     AssignmentStatisticsService statisticsService,
+                                     @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.assignmentRepository = assignmentRepository;
+        this.solutionRepository = solutionRepository;
+        this.statisticsService = statisticsService;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    public List<BulkItemResult> submitAll(User student, List<SolutionRequest> requests) {
+        Set<Long> requestedIds = new HashSet<>();
+        for (SolutionRequest request : requests) {
+            if (request != null && request.getAssignmentId() != null) {
+                requestedIds.add(request.getAssignmentId());
+            }
+        }
+        Set<Long> existingIds = requestedIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(assignmentRepository.findExistingIds(requestedIds));
+
+        List<BulkItemResult> results = new ArrayList<>(requests.size());
+        Map<Long, Long> storedPerAssignment = new HashMap<>();
+        int pending = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            SolutionRequest request = requests.get(i);
+            if (request == null || request.getAssignmentId() == null || request.getAnswers() == null) {
+                results.add(new BulkItemResult(i, null, BulkItemResult.Status.INVALID,
+                        "assignmentId and answers are required"));
+                continue;
+            }
+            if (!existingIds.contains(request.getAssignmentId())) {
+                results.add(new BulkItemResult(i, null, BulkItemResult.Status.NOT_FOUND,
+                        "Assignment not found: " + request.getAssignmentId()));
+                continue;
+            }
+
+            Solution solution = new Solution();
+            solution.setAssignment(entityManager.getReference(Assignment.class, request.getAssignmentId()));
+            solution.setStudent(entityManager.getReference(User.class, student.getId()));
+            solution.setAnswers(new ArrayList<>(request.getAnswers()));
+            entityManager.persist(solution);
+            results.add(new BulkItemResult(i, solution.getId(), BulkItemResult.Status.CREATED, null));
+            storedPerAssignment.merge(request.getAssignmentId(), 1L, Long::sum);
+
+            if (++pending == batchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        entityManager.flush();
+        storedPerAssignment.forEach(statisticsService::recordSubmissions);
+
+        logger.info("Bulk submission by student '{}': {} of {} solutions stored", student.getUsername(),
+                    results.stream().filter(r -> r.getStatus() == BulkItemResult.Status.CREATED).count(),
+                    requests.size());
+        return results;
+    }
+
+    /**
+     * Store submissions drained from the ingestion queue. All or nothing: if the
+     * transaction fails, none of them is stored and the caller may retry. Each solution keeps
+     * its receipt id; receipts that are already stored (a batch committed but not acknowledged
+     * in the journal before a crash, then replayed) are skipped and not counted again.
+     */
+    @Transactional
+    public void persistPending(List<SubmissionJournal.PendingSubmission> submissions) {
+        Set<String> receiptIds = new HashSet<>();
+        for (SubmissionJournal.PendingSubmission submission : submissions) {
+            receiptIds.add(submission.receiptId());
+        }
+        Set<String> storedReceipts = new HashSet<>(solutionRepository.findStoredReceiptIds(receiptIds));
+
+        Map<Long, Long> storedPerAssignment = new HashMap<>();
+        int pending = 0;
+        for (SubmissionJournal.PendingSubmission submission : submissions) {
+            if (!storedReceipts.add(submission.receiptId())) {
+                logger.debug("Submission {} is already stored, skipping it", submission.receiptId());
+                continue;
+            }
+            Solution solution = new Solution();
+            solution.setAssignment(entityManager.getReference(Assignment.class, submission.assignmentId()));
+            solution.setStudent(entityManager.getReference(User.class, submission.studentId()));
+            solution.setAnswers(new ArrayList<>(submission.answers()));
+            solution.setReceiptId(submission.receiptId());
+            entityManager.persist(solution);
+            storedPerAssignment.merge(submission.assignmentId(), 1L, Long::sum);
+
+            if (++pending == batchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        entityManager.flush();
+        storedPerAssignment.forEach(statisticsService::recordSubmissions);
+    }
+}
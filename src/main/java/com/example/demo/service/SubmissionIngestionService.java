@@ -0,0 +1,219 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.service.SubmissionJournal.PendingSubmission;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional write-behind path for solution submissions (submissions.ingestion.async=true).
+ *
+ * A submission is written to the {@link SubmissionJournal} and put on a bounded in-memory
+ * queue, and the student gets a receipt id straight away. A single background writer drains
+ * the queue in batches into the database and acknowledges them in the journal. When the
+ * queue is full, submissions are refused instead of waiting, so callers can back off.
+ * Unacknowledged submissions are replayed on startup; each solution stores its receipt id
+ * (unique), so a batch that was stored but not yet acknowledged is not stored twice.
+ */
+@Service
+public class SubmissionIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionIngestionService.class);
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 30_000;
+
+    private final SolutionSubmissionService solutionSubmissionService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Path journalFile;
+    private final long journalSegmentBytes;
+    private final BlockingQueue<PendingSubmission> queue;
+    // Free queue slots; a slot is only returned once its submission is in the database
+    private final Semaphore freeSlots;
+
+    private SubmissionJournal journal;
+    private Thread writer;
+    private volatile boolean running;
+    // Replayed submissions not stored yet; written by the writer thread only
+    private volatile int replayBacklog;
+
+    public SubmissionIngestionService(SolutionSubmissionService solutionSubmissionService,
+                                      @Value("${submissions.ingestion.async:false}") boolean enabled,
+                                      @Value("${submissions.ingestion.queue-capacity:10000}") int capacity,
+                                      @Value("${submissions.ingestion.batch-size:200}") int batchSize,
+                                      @Value("${submissions.ingestion.journal-file:data/submissions.journal}") String journalFile,
+                                      @Value("${submissions.ingestion.journal-segment-bytes:67108864}") long journalSegmentBytes) {
+        this.solutionSubmissionService = solutionSubmissionService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.journalFile = Path.of(journalFile);
+        this.journalSegmentBytes = journalSegmentBytes;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.freeSlots = new Semaphore(capacity);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journal = new SubmissionJournal(journalFile, journalSegmentBytes);
+        List<PendingSubmission> recovered = journal.recover();
+
+        running = true;
+        replayBacklog = recovered.size();
+        // The writer stores the replayed backlog before the queue, outside the queue's capacity, so
+        // startup never waits on the database however large the backlog is
+        writer = new Thread(() -> drainLoop(recovered), "submission-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Asynchronous submission ingestion started with journal {} ({} submissions to replay)",
+                    journalFile.toAbsolutePath(), recovered.size());
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        writer.join(5_000);
+        journal.close();
+        logger.info("Asynchronous submission ingestion stopped with {} submissions left for replay", queuedCount());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accept a submission for asynchronous storage.
+     *
+     * @return the receipt id, or empty when the queue is full
+     */
+    public Optional<String> submit(Long assignmentId, Integer studentId, List<String> answers) {
+        if (!freeSlots.tryAcquire()) {
+            logger.warn("Submission queue full, refusing submission for assignment ID: {} by student ID: {}",
+                        assignmentId, studentId);
+            return Optional.empty();
+        }
+        PendingSubmission submission = new PendingSubmission(UUID.randomUUID().toString(), assignmentId, studentId,
+                answers == null ? List.of() : Collections.unmodifiableList(new ArrayList<>(answers)));
+        try {
+            journal.append(submission);
+        } catch (RuntimeException e) {
+            freeSlots.release();
+            throw e;
+        }
+        queue.add(submission);
+        logger.debug("Submission {} queued for assignment ID: {} ({} queued)",
+                     submission.receiptId(), assignmentId, queue.size());
+        return Optional.of(submission.receiptId());
+    }
+
+    public int queuedCount() {
+        return queue.size() + replayBacklog;
+    }
+
+    private void drainLoop(List<PendingSubmission> recovered) {
+        try {
+            // Replayed submissions hold no queue slots, so none are released for them
+            for (int from = 0; from < recovered.size() && running; from += batchSize) {
+                List<PendingSubmission> batch = recovered.subList(from, Math.min(from + batchSize, recovered.size()));
+                store(batch);
+                acknowledge(batch);
+                replayBacklog = recovered.size() - from - batch.size();
+                logger.debug("Stored {} replayed submissions ({} still to replay)", batch.size(), replayBacklog);
+            }
+
+            List<PendingSubmission> batch = new ArrayList<>(batchSize);
+            while (running) {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                store(batch);
+                acknowledge(batch);
+                freeSlots.release(batch.size());
+                logger.debug("Stored {} queued submissions ({} still queued)", batch.size(), queue.size());
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Anything not acknowledged yet is replayed on the next start
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The batch is already stored, so keep trying to record that rather than storing it twice
+    private void acknowledge(List<PendingSubmission> batch) throws InterruptedException {
+        while (true) {
+            try {
+                journal.acknowledge(batch);
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Failed to acknowledge {} stored submissions, retrying", batch.size(), e);
+                Thread.sleep(1_000);
+            }
+        }
+    }
+
+    private void store(List<PendingSubmission> batch) throws InterruptedException {
+        try {
+            solutionSubmissionService.persistPending(batch);
+            return;
+        } catch (RuntimeException e) {
+            logger.warn("Storing a batch of {} submissions failed, retrying one by one: {}", batch.size(), e.getMessage());
+        }
+        for (PendingSubmission submission : batch) {
+            storeWithRetry(submission);
+        }
+    }
+
+    // Retries transient failures (database down) until they succeed; gives up only on rows
+    // the database will never accept, e.g. an assignment deleted after the submission was queued
+    private void storeWithRetry(PendingSubmission submission) throws InterruptedException {
+        long backoff = 100;
+        while (true) {
+            try {
+                solutionSubmissionService.persistPending(List.of(submission));
+                return;
+            } catch (RuntimeException e) {
+                if (isPermanent(e)) {
+                    logger.error("Dropping submission {} for assignment ID: {} by student ID: {}: {}",
+                                 submission.receiptId(), submission.assignmentId(), submission.studentId(),
+                                 e.getMessage());
+                    return;
+                }
+                logger.warn("Storing submission {} failed, retrying in {} ms: {}",
+                            submission.receiptId(), backoff, e.getMessage());
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private static boolean isPermanent(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException || cause instanceof DataIntegrityViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,393 @@
+package com.example.demo.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only, fsync'ed log of accepted submissions. Each accepted submission is written as
+ * an "S" line before it is acknowledged to the student; once it is stored in the database an
+ * "A" line with its receipt id is appended. On startup every S without a matching A is
+ * replayed, reading the journal line by line.
+ *
+ * Writes are group-committed: callers queue their lines and wait, and a single journal thread
+ * writes everything queued so far with one fsync, then releases the callers it covered.
+ *
+ * The journal is a series of segment files next to the configured path (name.1, name.2, ...;
+ * a file at the path itself, from before segments, is read as the oldest one). A new segment is
+ * started on every startup and whenever the current one grows past segmentBytes. The oldest
+ * segments are deleted once every submission they accepted is acknowledged; only the oldest,
+ * so an A line is never deleted while its S line is still on disk. When nothing is outstanding
+ * at all the current segment is truncated as well.
+ *
+ * Line format (tab separated, answers Base64 encoded and comma separated):
+ *   S receiptId assignmentId studentId answers
+ *   A receiptId
+ */
+public class SubmissionJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionJournal.class);
+    private static final String NO_ANSWERS = "-"; // not a Base64 character, so never a real answer list
+    private static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+    private static final int MAX_WRITES_PER_SYNC = 1024;
+    private static final Write CLOSE = new Write("", null, List.of(), new CompletableFuture<>());
+
+    private final Path file;
+    private final long segmentBytes;
+    private final BlockingQueue<Write> writes = new LinkedBlockingQueue<>();
+    private final AtomicLong syncs = new AtomicLong();
+    // Guards closed, so that no write is queued after the journal thread has stopped taking them
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean closed;
+
+    // Owned by recover() until the journal thread starts, then by the journal thread alone
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Map<String, Segment> outstanding = new HashMap<>();
+    private FileChannel channel;
+    private Thread journalThread;
+
+    public SubmissionJournal(Path file) {
+        this(file, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public SubmissionJournal(Path file, long segmentBytes) {
+        this.file = file.toAbsolutePath();
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Submissions that were accepted but never acknowledged, in acceptance order.
+     * Counts them as outstanding and opens the journal for writing; call once, before any append.
+     */
+    public List<PendingSubmission> recover() throws IOException {
+        Files.createDirectories(file.getParent());
+        Map<String, PendingSubmission> pending = new LinkedHashMap<>();
+        Map<String, Segment> origins = new HashMap<>();
+        int skipped = 0;
+        for (Segment segment : existingSegments()) {
+            segments.add(segment);
+            // Malformed bytes of a torn write are replaced rather than failing the read
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(Files.newInputStream(segment.path), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!replay(line, segment, pending, origins)) {
+                        skipped++;
+                    }
+                }
+            }
+        }
+        if (skipped > 0) {
+            // Only a write torn by a crash can produce these, and it was never acknowledged
+            logger.warn("Skipped {} unreadable lines in submission journal {}", skipped, file);
+        }
+        origins.values().forEach(segment -> segment.outstanding++);
+        outstanding.putAll(origins);
+
+        // A fresh segment keeps new records off a torn last line
+        openSegment(segments.isEmpty() ? 1 : segments.getLast().number + 1);
+        releaseSegments();
+
+        journalThread = new Thread(this::writeLoop, "submission-journal");
+        journalThread.setDaemon(true);
+        journalThread.start();
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Write an S line; returns once it is on disk.
+     */
+    public void append(PendingSubmission submission) {
+        String line = "S\t" + submission.receiptId() + "\t" + submission.assignmentId() + "\t"
+                + submission.studentId() + "\t" + encodeAnswers(submission.answers()) + "\n";
+        await(submit(new Write(line, submission.receiptId(), List.of(), new CompletableFuture<>())));
+    }
+
+    /**
+     * Write A lines for the given submissions; returns once they are on disk.
+     */
+    public void acknowledge(Collection<PendingSubmission> submissions) {
+        StringBuilder lines = new StringBuilder();
+        List<String> receiptIds = new ArrayList<>(submissions.size());
+        for (PendingSubmission submission : submissions) {
+            lines.append("A\t").append(submission.receiptId()).append('\n');
+            receiptIds.add(submission.receiptId());
+        }
+        await(submit(new Write(lines.toString(), null, receiptIds, new CompletableFuture<>())));
+    }
+
+    // fsyncs so far; every one covers all writes queued before it started
+    long syncCount() {
+        return syncs.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (journalThread == null) {
+            return;
+        }
+        writes.add(CLOSE);
+        try {
+            journalThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private CompletableFuture<Void> submit(Write write) {
+        lock.lock();
+        try {
+            if (journalThread == null || closed) {
+                throw new IllegalStateException("Submission journal " + file + " is not open");
+            }
+            writes.add(write);
+        } finally {
+            lock.unlock();
+        }
+        return write.durable();
+    }
+
+    private void await(CompletableFuture<Void> durable) {
+        try {
+            durable.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void writeLoop() {
+        List<Write> batch = new ArrayList<>();
+        while (true) {
+            batch.add(takeUninterruptibly());
+            writes.drainTo(batch, MAX_WRITES_PER_SYNC - 1);
+            int close = batch.indexOf(CLOSE);
+            List<Write> toWrite = close < 0 ? batch : batch.subList(0, close);
+            if (!toWrite.isEmpty()) {
+                writeBatch(toWrite);
+            }
+            if (close >= 0) {
+                refuseRemaining(batch.subList(close + 1, batch.size()));
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    // Anything queued behind the close is refused rather than left waiting
+    private void refuseRemaining(List<Write> remaining) {
+        lock.lock();
+        try {
+            closed = true;
+            writes.drainTo(remaining);
+        } finally {
+            lock.unlock();
+        }
+        IllegalStateException refused = new IllegalStateException("Submission journal " + file + " is closed");
+        remaining.forEach(write -> write.durable().completeExceptionally(refused));
+    }
+
+    private Write takeUninterruptibly() {
+        while (true) {
+            try {
+                return writes.take();
+            } catch (InterruptedException e) {
+                // Only close() ends the loop, so that no caller is left waiting
+            }
+        }
+    }
+
+    private void writeBatch(List<Write> batch) {
+        StringBuilder text = new StringBuilder();
+        for (Write write : batch) {
+            text.append(write.lines());
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            syncs.incrementAndGet();
+        } catch (IOException e) {
+            UncheckedIOException failure = new UncheckedIOException("Failed to write submission journal " + file, e);
+            batch.forEach(write -> write.durable().completeExceptionally(failure));
+            // The segment may end in a torn line now; later records go to a fresh one
+            rotate();
+            return;
+        }
+
+        for (Write write : batch) {
+            if (write.appended() != null) {
+                Segment current = segments.getLast();
+                current.outstanding++;
+                outstanding.put(write.appended(), current);
+            }
+            for (String receiptId : write.acknowledged()) {
+                Segment origin = outstanding.remove(receiptId);
+                if (origin != null) {
+                    origin.outstanding--;
+                }
+            }
+        }
+        releaseSegments();
+        try {
+            if (channel.size() >= segmentBytes) {
+                rotate();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read the size of submission journal {}: {}", file, e.getMessage());
+        }
+        batch.forEach(write -> write.durable().complete(null));
+    }
+
+    // Deleting or truncating only shortens the replay; a failure here is logged and retried later
+    private void releaseSegments() {
+        try {
+            while (segments.size() > 1 && segments.getFirst().outstanding == 0) {
+                Files.deleteIfExists(segments.removeFirst().path);
+            }
+            if (outstanding.isEmpty() && channel.size() > 0) {
+                channel.truncate(0);
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to compact submission journal {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void rotate() {
+        try {
+            channel.close();
+            openSegment(segments.getLast().number + 1);
+            releaseSegments();
+        } catch (IOException e) {
+            logger.error("Failed to start a new submission journal segment after {}", segments.getLast().path, e);
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        Segment segment = new Segment(number, segmentPath(number));
+        channel = FileChannel.open(segment.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        segments.add(segment);
+    }
+
+    // Returns false for a line that cannot be read
+    private static boolean replay(String line, Segment segment, Map<String, PendingSubmission> pending,
+                                  Map<String, Segment> origins) {
+        String[] fields = line.split("\t", -1);
+        try {
+            if (fields.length == 5 && fields[0].equals("S")) {
+                pending.put(fields[1], new PendingSubmission(fields[1], Long.valueOf(fields[2]),
+                        Integer.valueOf(fields[3]), decodeAnswers(fields[4])));
+                origins.put(fields[1], segment);
+                return true;
+            }
+            if (fields.length == 2 && fields[0].equals("A")) {
+                pending.remove(fields[1]);
+                origins.remove(fields[1]);
+                return true;
+            }
+            return line.isEmpty();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // Oldest first; the pre-segment file at the configured path counts as segment 0
+    private List<Segment> existingSegments() throws IOException {
+        String prefix = file.getFileName() + ".";
+        List<Segment> found = new ArrayList<>();
+        if (Files.isRegularFile(file)) {
+            found.add(new Segment(0, file));
+        }
+        try (Stream<Path> siblings = Files.list(file.getParent())) {
+            siblings.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.startsWith(prefix) && name.length() > prefix.length()
+                        && name.substring(prefix.length()).chars().allMatch(Character::isDigit)) {
+                    found.add(new Segment(Long.parseLong(name.substring(prefix.length())), path));
+                }
+            });
+        }
+        found.sort(Comparator.comparingLong(segment -> segment.number));
+        return found;
+    }
+
+    private Path segmentPath(long number) {
+        return file.resolveSibling(file.getFileName() + "." + number);
+    }
+
+    private static String encodeAnswers(List<String> answers) {
+        if (answers.isEmpty()) {
+            return NO_ANSWERS;
+        }
+        Base64.Encoder encoder = Base64.getEncoder();
+        List<String> encoded = new ArrayList<>(answers.size());
+        for (String answer : answers) {
+            encoded.add(encoder.encodeToString((answer == null ? "" : answer).getBytes(StandardCharsets.UTF_8)));
+        }
+        return String.join(",", encoded);
+    }
+
+    private static List<String> decodeAnswers(String field) {
+        List<String> answers = new ArrayList<>();
+        if (field.equals(NO_ANSWERS)) {
+            return answers;
+        }
+        Base64.Decoder decoder = Base64.getDecoder();
+        for (String encoded : field.split(",", -1)) {
+            answers.add(new String(decoder.decode(encoded), StandardCharsets.UTF_8));
+        }
+        return answers;
+    }
+
+    // Lines queued by one caller; appended is the receipt id of an S line, acknowledged those of A lines
+    private record Write(String lines, String appended, List<String> acknowledged, CompletableFuture<Void> durable) {
+    }
+
+    private static final class Segment {
+
+        private final long number;
+        private final Path path;
+        // Submissions accepted in this segment and not acknowledged yet
+        private int outstanding;
+
+        Segment(long number, Path path) {
+            this.number = number;
+            this.path = path;
+        }
+    }
+
+    /** A submission accepted by the ingestion queue and not yet known to be in the database. */
+    public record PendingSubmission(String receiptId, Long assignmentId, Integer studentId, List<String> answers) {
+    }
+}
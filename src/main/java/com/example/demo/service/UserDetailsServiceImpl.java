@@ -3,6 +3,7 @@ package com.example.demo.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -12,7 +13,7 @@ import com.example.demo.model.UserDetailImpl;
 import com.example.demo.repository.UserRepository;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
 
@@ -33,13 +34,15 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                         return new UsernameNotFoundException("User not found: " + username);
                     });
 
-            logger.info("User '{}' loaded successfully with role: {}", username, user.getRole());
+            logger.debug("User '{}' loaded successfully with role: {}", username, user.getRole());
             logger.trace("User details - ID: {}, Email: {}, Role: {}", 
                          user.getId(), user.getEmail(), user.getRole());
 
             UserDetailImpl userDetails = new UserDetailImpl(user);
-            logger.debug("UserDetails object created for user '{}' with authorities: {}", 
-                         username, userDetails.getAuthorities());
+            if (logger.isDebugEnabled()) {
+                logger.debug("UserDetails object created for user '{}' with authorities: {}", 
+                             username, userDetails.getAuthorities());
+            }
 
             return userDetails;
         } catch (UsernameNotFoundException e) {
@@ -50,4 +53,17 @@ public class UserDetailsServiceImpl implements UserDetailsService {
             throw new UsernameNotFoundException("Error loading user: " + username, e);
         }
     }
-}
\ No newline at end of file
+
+    // Called by the login provider to store a hash upgraded to the configured work factor
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        urepo.updatePassword(user.getUsername(), newPassword);
+        logger.debug("Password hash of user '{}' upgraded", user.getUsername());
+        // A copy: the old entity may still be shared through the user details cache
+        if (user instanceof UserDetailImpl details) {
+            User old = details.getUser();
+            return new UserDetailImpl(new User(old.getId(), old.getUsername(), newPassword, old.getEmail(), old.getRole()));
+        }
+        return loadUserByUsername(user.getUsername());
+    }
+}
@@ -0,0 +1,488 @@
+package com.example.demo.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.BulkItemResult;
+import com.example.demo.dto.RegisterRequest;
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.security.BoundedPasswordEncoder;
+
+import jakarta.annotation.PreDestroy;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Enrolls a cohort from an upload that is read one row at a time, so only one chunk of
+ * jdbc-batch-size rows is in memory. Per chunk: taken usernames and emails are found with one
+ * select each, the passwords are hashed in parallel on a fork-join pool of its own, and the
+ * users are inserted as one JDBC batch (Hibernate cannot batch inserts of IDENTITY ids) in a
+ * transaction of their own, so a large upload commits as it goes.
+ *
+ * The unique indexes on user still decide races with concurrent registrations: if a chunk's
+ * batch hits one, the chunk is retried row by row and only the offending rows are reported.
+ * Usernames and emails are compared case-insensitively, like MySQL's default collation.
+ */
+@Service
+public class UserEnrollmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserEnrollmentService.class);
+    private static final String INSERT_USER_SQL = "insert into user (username, email, password, role) values (?, ?, ?, ?)";
+
+    /**
+     * Rows of an upload, read on demand.
+     */
+    @FunctionalInterface
+    public interface EnrollmentRows {
+
+        /**
+         * @return the next row, or null at the end of the upload
+         * @throws IllegalArgumentException if this row cannot be read; later rows may still be
+         */
+        RegisterRequest next() throws IOException;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder hasher;
+    private final JsonMapper jsonMapper;
+    private final CachingUserDetailsService userDetailsCache;
+    private final ForkJoinPool hashingPool;
+    private final int batchSize;
+    private final int maxRows;
+
+    public UserEnrollmentService(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 PasswordEncoder passwordEncoder,
+                                 JsonMapper jsonMapper,
+                                 CachingUserDetailsService userDetailsCache,
+                                 @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                                 @Value("${enrollment.hashing.parallelism:0}") int parallelism,
+                                 @Value("${enrollment.max-rows:50000}") int maxRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Hash on the pool below rather than queueing a whole cohort behind logins
+        this.hasher = passwordEncoder instanceof BoundedPasswordEncoder bounded ? bounded.getDelegate() : passwordEncoder;
+        this.jsonMapper = jsonMapper;
+        this.userDetailsCache = userDetailsCache;
+        this.hashingPool = new ForkJoinPool(parallelism > 0 ? parallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+    }
+
+    @PreDestroy
+    void stop() {
+        hashingPool.shutdownNow();
+    }
+
+    /**
+     * The 400 message for an insert rejected by one of the unique indexes on user. Works from the
+     * index name in the driver's message (MySQL: "Duplicate entry .. for key 'user.ux_user_email'").
+     */
+    public static String duplicateMessage(DataIntegrityViolationException e) {
+        String detail = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (detail.contains(User.EMAIL_INDEX)) {
+            return "Email already exists";
+        }
+        if (detail.contains(User.USERNAME_INDEX)) {
+            return "Username already exists";
+        }
+        return "Username or email already exists";
+    }
+
+    /**
+     * Rows of a CSV upload (RFC 4180). The first line names the columns (username, email,
+     * password, role; any order, role optional). Values may be quoted, with "" for a quote inside,
+     * and quoted values may hold commas and line breaks. A row needs as many values as the header
+     * has columns. Surrounding spaces are stripped from every value but the password, which is
+     * taken as written; empty values are null, a missing role means STUDENT.
+     *
+     * @throws IllegalArgumentException if the header lacks the username or password column
+     */
+    public EnrollmentRows readCsv(InputStream upload) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(
+                new BufferedReader(new InputStreamReader(upload, StandardCharsets.UTF_8)));
+        List<String> headerRecord = reader.next();
+        List<String> header = headerRecord == null ? List.of() : headerRecord.stream()
+                .map(column -> column.strip().toLowerCase(Locale.ROOT))
+                .toList();
+        int username = header.indexOf("username");
+        int email = header.indexOf("email");
+        int password = header.indexOf("password");
+        int role = header.indexOf("role");
+        if (username < 0 || password < 0) {
+            throw new IllegalArgumentException("CSV header must name the username and password columns");
+        }
+
+        return () -> {
+            List<String> values = reader.next();
+            if (values == null) {
+                return null;
+            }
+            if (values.size() != header.size()) {
+                throw new IllegalArgumentException("Row has " + values.size() + " values, the header names "
+                        + header.size() + " columns");
+            }
+            String roleName = value(values, role);
+            String rawPassword = values.get(password);
+            return new RegisterRequest(value(values, username), value(values, email),
+                    rawPassword.isEmpty() ? null : rawPassword, roleName == null ? null : parseRole(roleName));
+        };
+    }
+
+    /**
+     * Rows of an NDJSON upload, one register request object per line. A malformed line only
+     * fails its own row.
+     */
+    public EnrollmentRows readNdjson(InputStream upload) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(upload, StandardCharsets.UTF_8));
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            try {
+                return present(jsonMapper.readValue(line, RegisterRequest.class));
+            } catch (JacksonException e) {
+                throw new IllegalArgumentException("Unreadable row: " + e.getOriginalMessage());
+            }
+        };
+    }
+
+    /**
+     * Rows of a JSON array upload, bound one element at a time. Malformed JSON ends the upload
+     * at that element.
+     */
+    public EnrollmentRows readJsonArray(InputStream upload) {
+        MappingIterator<RegisterRequest> values = jsonMapper.readerFor(RegisterRequest.class).readValues(upload);
+        return () -> {
+            try {
+                return values.hasNextValue() ? present(values.nextValue()) : null;
+            } catch (JacksonException e) {
+                values.close();
+                throw new IllegalArgumentException("Unreadable JSON, rest of the upload skipped: "
+                        + e.getOriginalMessage());
+            }
+        };
+    }
+
+    /**
+     * Enroll every row of the upload, chunk by chunk.
+     *
+     * @return one result per row, in upload order
+     */
+    public List<BulkItemResult> enroll(EnrollmentRows rows) throws IOException {
+        List<BulkItemResult> results = new ArrayList<>();
+        List<RegisterRequest> chunk = new ArrayList<>(batchSize);
+        List<Integer> chunkIndexes = new ArrayList<>(batchSize);
+        for (int index = 0; ; index++) {
+            RegisterRequest request = null;
+            String unreadable = null;
+            try {
+                request = rows.next();
+            } catch (IllegalArgumentException e) {
+                unreadable = e.getMessage();
+            }
+            if (request == null && unreadable == null) {
+                break;
+            }
+            if (index == maxRows) {
+                results.add(new BulkItemResult(index, null, BulkItemResult.Status.INVALID,
+                        "Upload exceeds " + maxRows + " rows, the rest was not read"));
+                break;
+            }
+            if (unreadable != null) {
+                results.add(new BulkItemResult(index, null, BulkItemResult.Status.INVALID, unreadable));
+                continue;
+            }
+            if (isBlank(request.getUsername()) || isBlank(request.getPassword())) {
+                results.add(new BulkItemResult(index, null, BulkItemResult.Status.INVALID,
+                        "username and password are required"));
+                continue;
+            }
+            results.add(null);
+            chunk.add(request);
+            chunkIndexes.add(index);
+            if (chunk.size() == batchSize) {
+                enrollChunk(chunk, chunkIndexes, results);
+                chunk.clear();
+                chunkIndexes.clear();
+            }
+        }
+        enrollChunk(chunk, chunkIndexes, results);
+
+        logger.info("Bulk enrollment: {} of {} rows created", results.stream()
+                .filter(result -> result.getStatus() == BulkItemResult.Status.CREATED).count(), results.size());
+        return results;
+    }
+
+    private void enrollChunk(List<RegisterRequest> chunk, List<Integer> indexes, List<BulkItemResult> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Set<String> takenUsernames = findExisting("username",
+                chunk.stream().map(RegisterRequest::getUsername).distinct().toList());
+        Set<String> takenEmails = findExisting("email",
+                chunk.stream().map(RegisterRequest::getEmail).filter(email -> email != null).distinct().toList());
+
+        List<RegisterRequest> accepted = new ArrayList<>(chunk.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(chunk.size());
+        for (int position = 0; position < chunk.size(); position++) {
+            RegisterRequest request = chunk.get(position);
+            int index = indexes.get(position);
+            String emailKey = request.getEmail() == null ? null : key(request.getEmail());
+            if (takenUsernames.contains(key(request.getUsername()))) {
+                results.set(index, new BulkItemResult(index, null, BulkItemResult.Status.CONFLICT, "Username already exists"));
+                continue;
+            }
+            if (emailKey != null && takenEmails.contains(emailKey)) {
+                results.set(index, new BulkItemResult(index, null, BulkItemResult.Status.CONFLICT, "Email already exists"));
+                continue;
+            }
+            // Later rows of this chunk may not reuse them either; earlier chunks are already in the table
+            takenUsernames.add(key(request.getUsername()));
+            if (emailKey != null) {
+                takenEmails.add(emailKey);
+            }
+            accepted.add(request);
+            acceptedIndexes.add(index);
+        }
+
+        List<String> hashes = hash(accepted.stream().map(RegisterRequest::getPassword).toList());
+        List<User> users = new ArrayList<>(accepted.size());
+        for (int position = 0; position < accepted.size(); position++) {
+            RegisterRequest request = accepted.get(position);
+            users.add(new User(null, request.getUsername(), hashes.get(position), request.getEmail(),
+                    request.getRole() != null ? request.getRole() : Role.STUDENT));
+        }
+
+        List<Integer> inserted = insert(users, acceptedIndexes, results);
+        Map<String, Long> ids = findIds(inserted.stream().map(users::get).map(User::getUsername).toList());
+        for (int position : inserted) {
+            int index = acceptedIndexes.get(position);
+            String username = users.get(position).getUsername();
+            results.set(index, new BulkItemResult(index, ids.get(key(username)), BulkItemResult.Status.CREATED, null));
+            userDetailsCache.evict(username);
+        }
+    }
+
+    // One task per password; the pool's parallelism bounds how many cores an upload uses
+    private List<String> hash(List<String> passwords) {
+        List<ForkJoinTask<String>> tasks = passwords.stream()
+                .map(password -> hashingPool.submit(() -> hasher.encode(password)))
+                .toList();
+        return tasks.stream().map(ForkJoinTask::join).toList();
+    }
+
+    // Positions in users that were inserted
+    private List<Integer> insert(List<User> users, List<Integer> indexes, List<BulkItemResult> results) {
+        List<Integer> inserted = new ArrayList<>(users.size());
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_USER_SQL, users, batchSize, (ps, user) -> setUser(ps, user)));
+            for (int position = 0; position < users.size(); position++) {
+                inserted.add(position);
+            }
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent registration took a name since the lookup; the batch was rolled back
+            logger.warn("Bulk enrollment batch hit a unique index, inserting its {} rows one by one", users.size());
+            for (int position = 0; position < users.size(); position++) {
+                User user = users.get(position);
+                try {
+                    jdbcTemplate.update(INSERT_USER_SQL, ps -> setUser(ps, user));
+                    inserted.add(position);
+                } catch (DataIntegrityViolationException duplicate) {
+                    int index = indexes.get(position);
+                    results.set(index, new BulkItemResult(index, null, BulkItemResult.Status.CONFLICT,
+                            duplicateMessage(duplicate)));
+                }
+            }
+        }
+        return inserted;
+    }
+
+    private static void setUser(PreparedStatement ps, User user) throws SQLException {
+        ps.setString(1, user.getUsername());
+        ps.setString(2, user.getEmail());
+        ps.setString(3, user.getPassword());
+        ps.setString(4, user.getRole().name());
+    }
+
+    // Lower-cased values of column (a fixed column name, never user input) that are already taken.
+    // A plain "in" keeps the unique index usable; MySQL's collation makes it case-insensitive.
+    private Set<String> findExisting(String column, Collection<String> values) {
+        Set<String> existing = new HashSet<>();
+        if (values.isEmpty()) {
+            return existing;
+        }
+        String sql = "select " + column + " from user where " + column + " in ("
+                + String.join(",", Collections.nCopies(values.size(), "?")) + ")";
+        jdbcTemplate.query(sql, rs -> {
+            existing.add(key(rs.getString(1)));
+        }, values.toArray());
+        return existing;
+    }
+
+    private Map<String, Long> findIds(List<String> usernames) {
+        Map<String, Long> ids = new HashMap<>();
+        if (usernames.isEmpty()) {
+            return ids;
+        }
+        String sql = "select id, username from user where username in ("
+                + String.join(",", Collections.nCopies(usernames.size(), "?")) + ")";
+        jdbcTemplate.query(sql, rs -> {
+            ids.put(key(rs.getString("username")), rs.getLong("id"));
+        }, usernames.toArray());
+        return ids;
+    }
+
+    // A JSON null row must not read as the end of the upload
+    private static RegisterRequest present(RegisterRequest row) {
+        if (row == null) {
+            throw new IllegalArgumentException("Row is null");
+        }
+        return row;
+    }
+
+    private static Role parseRole(String roleName) {
+        try {
+            return Role.valueOf(roleName.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown role '" + roleName + "'");
+        }
+    }
+
+    private static String value(List<String> values, int column) {
+        if (column < 0) {
+            return null;
+        }
+        String value = values.get(column).strip();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Reads RFC 4180 records one at a time. Blank lines are skipped. A record longer than
+     * MAX_RECORD_CHARS, or an unterminated quote, fails its row and ends the upload there, since
+     * the next record cannot be found reliably.
+     */
+    private static final class CsvRecordReader {
+
+        private static final int MAX_RECORD_CHARS = 64 * 1024;
+
+        private final BufferedReader reader;
+        private boolean exhausted;
+
+        CsvRecordReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        // The next non-blank record, or null at the end of the upload
+        List<String> next() throws IOException {
+            List<String> record;
+            do {
+                record = read();
+            } while (record != null && record.size() == 1 && record.get(0).isBlank());
+            return record;
+        }
+
+        private List<String> read() throws IOException {
+            if (exhausted) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean inQuotes = false;
+            boolean readAny = false;
+            int length = 0;
+            int c;
+            while ((c = reader.read()) != -1) {
+                readAny = true;
+                if (++length > MAX_RECORD_CHARS) {
+                    exhausted = true;
+                    throw new IllegalArgumentException("Row exceeds " + MAX_RECORD_CHARS
+                            + " characters, rest of the upload skipped");
+                }
+                if (inQuotes) {
+                    if (c != '"') {
+                        field.append((char) c);
+                    } else if (peek() == '"') {
+                        reader.read();
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    inQuotes = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n') {
+                    if (c == '\r' && peek() == '\n') {
+                        reader.read();
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    // Including a quote inside an unquoted value, taken literally
+                    field.append((char) c);
+                }
+            }
+            exhausted = true;
+            if (inQuotes) {
+                throw new IllegalArgumentException("Unterminated quoted value, rest of the upload skipped");
+            }
+            if (!readAny) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private int peek() throws IOException {
+            reader.mark(1);
+            int c = reader.read();
+            reader.reset();
+            return c;
+        }
+    }
+}
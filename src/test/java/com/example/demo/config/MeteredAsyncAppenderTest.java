@@ -0,0 +1,124 @@
+package com.example.demo.config;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+
+@DisplayName("MeteredAsyncAppender Tests")
+class MeteredAsyncAppenderTest {
+
+    private final LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> written = new CopyOnWriteArrayList<>();
+    private MeteredAsyncAppender appender;
+
+    @BeforeEach
+    void setUp() {
+        // Stands in for a slow disk: holds the worker on the first event until released
+        AppenderBase<ILoggingEvent> slowAppender = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                writing.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.add(event.getFormattedMessage());
+            }
+        };
+        slowAppender.setContext(loggerContext);
+        slowAppender.start();
+
+        appender = new MeteredAsyncAppender();
+        appender.setContext(loggerContext);
+        appender.setName("ASYNC_TEST");
+        appender.setQueueSize(4);
+        appender.setDiscardingThreshold(2);
+        appender.setNeverBlock(true);
+        appender.addAppender(slowAppender);
+        appender.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        appender.stop();
+    }
+
+    @Test
+    @DisplayName("Should discard DEBUG but keep INFO under pressure, and count events dropped on a full queue")
+    void testDropsAreCountedByReason() throws InterruptedException {
+        // Arrange - the worker is stuck writing "first"; three more leave one free slot
+        appender.doAppend(event(Level.INFO, "first"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            appender.doAppend(event(Level.INFO, "queued-" + i));
+        }
+
+        // Act
+        appender.doAppend(event(Level.DEBUG, "debug-below-threshold")); // discarded
+        appender.doAppend(event(Level.INFO, "last-slot"));              // takes the last slot
+        appender.doAppend(event(Level.WARN, "warn-queue-full"));        // dropped, queue full
+        appender.doAppend(event(Level.DEBUG, "debug-queue-full"));      // discarded
+
+        // Assert
+        assertEquals(2, appender.getDropped(MeteredAsyncAppender.REASON_DISCARDED));
+        assertEquals(1, appender.getDropped(MeteredAsyncAppender.REASON_QUEUE_FULL));
+
+        release.countDown();
+        appender.stop();
+        assertEquals(List.of("first", "queued-0", "queued-1", "queued-2", "last-slot"), written);
+    }
+
+    @Test
+    @DisplayName("Should only discard levels at or below the configured discard level")
+    void testDiscardLevelIsConfigurable() throws InterruptedException {
+        // Arrange
+        appender.setDiscardLevel("INFO");
+        appender.doAppend(event(Level.INFO, "first"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            appender.doAppend(event(Level.WARN, "queued-" + i));
+        }
+
+        // Act
+        appender.doAppend(event(Level.INFO, "info-below-threshold"));
+
+        // Assert
+        assertEquals(1, appender.getDropped(MeteredAsyncAppender.REASON_DISCARDED));
+        assertEquals("INFO", appender.getDiscardLevel());
+    }
+
+    @Test
+    @DisplayName("Should be visible to the metrics while started and not after stopping")
+    void testStartedRegistry() {
+        // Assert
+        assertSame(appender, MeteredAsyncAppender.started("ASYNC_TEST"));
+
+        appender.stop();
+        assertNull(MeteredAsyncAppender.started("ASYNC_TEST"));
+    }
+
+    private LoggingEvent event(Level level, String message) {
+        return new LoggingEvent(getClass().getName(), loggerContext.getLogger("test"), level, message, null, null);
+    }
+}
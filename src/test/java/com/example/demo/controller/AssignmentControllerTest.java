@@ -1,11 +1,13 @@
 package com.example.demo.controller;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,17 +17,26 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import com.example.demo.dto.AssignmentPage;
 import com.example.demo.dto.AssignmentRequest;
+import com.example.demo.dto.AssignmentStatistics;
+import com.example.demo.dto.AssignmentSummary;
+import com.example.demo.dto.BulkItemResult;
 import com.example.demo.dto.MarksRequest;
 import com.example.demo.dto.SolutionRequest;
+import com.example.demo.dto.SolutionView;
+import com.example.demo.dto.SubmissionPage;
+import com.example.demo.dto.SubmissionSummary;
 import com.example.demo.model.Assignment;
 import com.example.demo.model.Role;
 import com.example.demo.model.Solution;
@@ -33,6 +44,12 @@ import com.example.demo.model.User;
 import com.example.demo.model.UserDetailImpl;
 import com.example.demo.repository.AssignmentRepository;
 import com.example.demo.repository.SolutionRepository;
+import com.example.demo.service.AssignmentStatisticsService;
+import com.example.demo.service.SolutionGradingService;
+import com.example.demo.service.SolutionSubmissionService;
+import com.example.demo.service.SubmissionIngestionService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("AssignmentController Tests")
@@ -44,6 +61,21 @@ class AssignmentControllerTest {
     @Mock
     private SolutionRepository solutionRepository;
 
+    @Mock
+    private SolutionSubmissionService solutionSubmissionService;
+
+    @Mock
+    private SolutionGradingService solutionGradingService;
+
+    @Mock
+    private SubmissionIngestionService submissionIngestionService;
+
+    @Mock
+    private AssignmentStatisticsService assignmentStatisticsService;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private AssignmentController assignmentController;
 
@@ -98,6 +130,7 @@ class AssignmentControllerTest {
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Assignment created successfully", response.getBody());
+        assertEquals(1, meterRegistry.get(AssignmentController.DB_TIMER).tag("operation", "create").timer().count());
 
         verify(assignmentRepository, times(1)).save(any(Assignment.class));
     }
@@ -115,6 +148,7 @@ class AssignmentControllerTest {
         // Assert
         assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
         assertEquals("Authentication required", response.getBody());
+        assertNull(meterRegistry.find(AssignmentController.DB_TIMER).timer());
 
         verify(assignmentRepository, never()).save(any(Assignment.class));
     }
@@ -141,36 +175,208 @@ class AssignmentControllerTest {
     // ========== GET ALL ASSIGNMENTS TESTS ==========
 
     @Test
-    @DisplayName("Should get all assignments successfully")
+    @DisplayName("Should get first page of assignments successfully")
     void testGetAssignments_Success() {
         // Arrange
-        List<Assignment> assignments = Arrays.asList(testAssignment);
+        List<AssignmentSummary> summaries = Arrays.asList(new AssignmentSummary(1L, "Java Basics", 2));
         UserDetailImpl studentUserDetails = new UserDetailImpl(studentUser);
 
-        when(assignmentRepository.findAll()).thenReturn(assignments);
+        when(assignmentRepository.findSummariesAfter(0L, Limit.of(21))).thenReturn(summaries);
 
         // Act
-        ResponseEntity<List<Assignment>> response = assignmentController.getAssignments(studentUserDetails);
+        ResponseEntity<AssignmentPage> response = assignmentController.getAssignments(null, 20, studentUserDetails);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        assertEquals("Java Basics", response.getBody().get(0).getTitle());
+        assertEquals(1, response.getBody().getItems().size());
+        assertEquals("Java Basics", response.getBody().getItems().get(0).getTitle());
+        assertEquals(2, response.getBody().getItems().get(0).getQuestionCount());
+        assertNull(response.getBody().getNextCursor());
+        assertEquals(1, meterRegistry.get(AssignmentController.DB_TIMER).tag("operation", "list").timer().count());
+
+        verify(assignmentRepository, times(1)).findSummariesAfter(0L, Limit.of(21));
+        verify(assignmentRepository, never()).findAll();
+    }
 
-        verify(assignmentRepository, times(1)).findAll();
+    @Test
+    @DisplayName("Should return next cursor when more assignments exist")
+    void testGetAssignments_NextCursor() {
+        // Arrange
+        List<AssignmentSummary> summaries = Arrays.asList(
+                new AssignmentSummary(11L, "A", 1),
+                new AssignmentSummary(12L, "B", 1),
+                new AssignmentSummary(13L, "C", 1));
+        UserDetailImpl studentUserDetails = new UserDetailImpl(studentUser);
+
+        when(assignmentRepository.findSummariesAfter(10L, Limit.of(3))).thenReturn(summaries);
+
+        // Act
+        ResponseEntity<AssignmentPage> response = assignmentController.getAssignments(10L, 2, studentUserDetails);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().getItems().size());
+        assertEquals(12L, response.getBody().getNextCursor());
     }
 
     @Test
     @DisplayName("Should fail to get assignments when not authenticated")
     void testGetAssignments_NotAuthenticated() {
         // Act
-        ResponseEntity<List<Assignment>> response = assignmentController.getAssignments(null);
+        ResponseEntity<AssignmentPage> response = assignmentController.getAssignments(null, 20, null);
 
         // Assert
         assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
 
-        verify(assignmentRepository, never()).findAll();
+        verify(assignmentRepository, never()).findSummariesAfter(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should get single assignment with questions")
+    void testGetAssignment_Success() {
+        // Arrange
+        UserDetailImpl studentUserDetails = new UserDetailImpl(studentUser);
+
+        when(assignmentRepository.findWithQuestionsById(1L)).thenReturn(Optional.of(testAssignment));
+
+        // Act
+        ResponseEntity<Assignment> response = assignmentController.getAssignment(1L, studentUserDetails);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().getQuestions().size());
+    }
+
+    @Test
+    @DisplayName("Should return 404 for unknown assignment")
+    void testGetAssignment_NotFound() {
+        // Arrange
+        UserDetailImpl studentUserDetails = new UserDetailImpl(studentUser);
+
+        when(assignmentRepository.findWithQuestionsById(999L)).thenReturn(Optional.empty());
+
+        // Act
+        ResponseEntity<Assignment> response = assignmentController.getAssignment(999L, studentUserDetails);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    // ========== LIST SOLUTIONS TESTS ==========
+
+    @Test
+    @DisplayName("Should list solutions of an assignment for admin")
+    void testGetSolutions_Success() {
+        // Arrange
+        UserDetailImpl adminUserDetails = new UserDetailImpl(adminUser);
+
+        when(solutionRepository.findByAssignmentIdOrderById(1L)).thenReturn(Arrays.asList(testSolution));
+
+        // Act
+        ResponseEntity<List<SolutionView>> response = assignmentController.getSolutions(1L, adminUserDetails);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        assertEquals("student", response.getBody().get(0).getStudentUsername());
+        assertEquals(2, response.getBody().get(0).getAnswers().size());
+    }
+
+    @Test
+    @DisplayName("Should fail to list solutions when user is not admin")
+    void testGetSolutions_NotAdmin() {
+        // Arrange
+        UserDetailImpl studentUserDetails = new UserDetailImpl(studentUser);
+
+        // Act
+        ResponseEntity<List<SolutionView>> response = assignmentController.getSolutions(1L, studentUserDetails);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+
+        verify(solutionRepository, never()).findByAssignmentIdOrderById(anyLong());
+    }
+
+    // ========== SUBMISSION HISTORY TESTS ==========
+
+    @Test
+    @DisplayName("Should return a page of own submissions with a cursor to the next page")
+    void testGetMySubmissions_NextCursor() {
+        // Arrange
+        UserDetailImpl studentUserDetails = new UserDetailImpl(studentUser);
+        List<SubmissionSummary> rows = Arrays.asList(
+                new SubmissionSummary(5L, 1L, "Java Basics", 80),
+                new SubmissionSummary(7L, 2L, "Spring Basics", null));
+
+        when(solutionRepository.findSubmissionsAfter(2, 1L, 3L, Limit.of(2))).thenReturn(rows);
+
+        // Act
+        ResponseEntity<SubmissionPage> response = assignmentController.getMySubmissions("1:3", 1, studentUserDetails);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getItems().size());
+        assertEquals("1:5", response.getBody().getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed submissions cursor")
+    void testGetMySubmissions_InvalidCursor() {
+        // Arrange
+        UserDetailImpl studentUserDetails = new UserDetailImpl(studentUser);
+
+        // Act
+        ResponseEntity<SubmissionPage> response = assignmentController.getMySubmissions("abc", 20, studentUserDetails);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+
+        verify(solutionRepository, never()).findSubmissionsAfter(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should fail to list submissions when not authenticated")
+    void testGetMySubmissions_NotAuthenticated() {
+        // Act
+        ResponseEntity<SubmissionPage> response = assignmentController.getMySubmissions(null, 20, null);
+
+        // Assert
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    }
+
+    // ========== STATISTICS TESTS ==========
+
+    @Test
+    @DisplayName("Should return assignment statistics to admin")
+    void testGetStatistics_Success() {
+        // Arrange
+        UserDetailImpl adminUserDetails = new UserDetailImpl(adminUser);
+        AssignmentStatistics statistics = new AssignmentStatistics(1L, 3, 2, 80.0, 70, 90, Collections.emptyMap());
+
+        when(assignmentStatisticsService.getStatistics(1L)).thenReturn(statistics);
+
+        // Act
+        ResponseEntity<AssignmentStatistics> response = assignmentController.getStatistics(1L, adminUserDetails);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(statistics, response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should fail to return statistics when user is not admin")
+    void testGetStatistics_NotAdmin() {
+        // Arrange
+        UserDetailImpl studentUserDetails = new UserDetailImpl(studentUser);
+
+        // Act
+        ResponseEntity<AssignmentStatistics> response = assignmentController.getStatistics(1L, studentUserDetails);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+
+        verify(assignmentStatisticsService, never()).getStatistics(anyLong());
     }
 
     // ========== SUBMIT SOLUTION TESTS ==========
@@ -197,6 +403,7 @@ class AssignmentControllerTest {
 
         verify(assignmentRepository, times(1)).findById(1L);
         verify(solutionRepository, times(1)).save(any(Solution.class));
+        verify(assignmentStatisticsService, times(1)).recordSubmission(1L);
     }
 
     @Test
@@ -257,6 +464,108 @@ class AssignmentControllerTest {
         verify(solutionRepository, never()).save(any(Solution.class));
     }
 
+    @Test
+    @DisplayName("Should accept solution with a receipt when async ingestion is enabled")
+    void testSubmitSolution_AsyncAccepted() {
+        // Arrange
+        SolutionRequest request = new SolutionRequest();
+        request.setAssignmentId(1L);
+        request.setAnswers(Arrays.asList("Answer 1", "Answer 2"));
+
+        UserDetailImpl studentUserDetails = new UserDetailImpl(studentUser);
+
+        when(submissionIngestionService.isEnabled()).thenReturn(true);
+        when(assignmentRepository.existsById(1L)).thenReturn(true);
+        when(submissionIngestionService.submit(1L, 2, request.getAnswers())).thenReturn(Optional.of("receipt-1"));
+
+        // Act
+        ResponseEntity<String> response = assignmentController.submitSolution(request, studentUserDetails);
+
+        // Assert
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("Solution accepted with receipt receipt-1", response.getBody());
+
+        verify(solutionRepository, never()).save(any(Solution.class));
+    }
+
+    @Test
+    @DisplayName("Should ask student to retry when the submission queue is full")
+    void testSubmitSolution_AsyncQueueFull() {
+        // Arrange
+        SolutionRequest request = new SolutionRequest();
+        request.setAssignmentId(1L);
+        request.setAnswers(Arrays.asList("Answer 1"));
+
+        UserDetailImpl studentUserDetails = new UserDetailImpl(studentUser);
+
+        when(submissionIngestionService.isEnabled()).thenReturn(true);
+        when(assignmentRepository.existsById(1L)).thenReturn(true);
+        when(submissionIngestionService.submit(1L, 2, request.getAnswers())).thenReturn(Optional.empty());
+
+        // Act
+        ResponseEntity<String> response = assignmentController.submitSolution(request, studentUserDetails);
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+    }
+
+    // ========== BULK SUBMIT TESTS ==========
+
+    @Test
+    @DisplayName("Should bulk submit solutions by student")
+    void testSubmitSolutions_Success() {
+        // Arrange
+        SolutionRequest request = new SolutionRequest();
+        request.setAssignmentId(1L);
+        request.setAnswers(Arrays.asList("Answer 1", "Answer 2"));
+        List<SolutionRequest> requests = Arrays.asList(request);
+
+        UserDetailImpl studentUserDetails = new UserDetailImpl(studentUser);
+        List<BulkItemResult> results = Arrays.asList(
+                new BulkItemResult(0, 10L, BulkItemResult.Status.CREATED, null));
+
+        when(solutionSubmissionService.submitAll(studentUser, requests)).thenReturn(results);
+
+        // Act
+        ResponseEntity<List<BulkItemResult>> response = assignmentController.submitSolutions(requests, studentUserDetails);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(BulkItemResult.Status.CREATED, response.getBody().get(0).getStatus());
+        verify(solutionSubmissionService, times(1)).submitAll(studentUser, requests);
+    }
+
+    @Test
+    @DisplayName("Should fail to bulk submit when user is not student")
+    void testSubmitSolutions_NotStudent() {
+        // Arrange
+        UserDetailImpl adminUserDetails = new UserDetailImpl(adminUser);
+
+        // Act
+        ResponseEntity<List<BulkItemResult>> response = assignmentController.submitSolutions(
+                Arrays.asList(new SolutionRequest()), adminUserDetails);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(solutionSubmissionService, never()).submitAll(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject bulk submission above the item limit")
+    void testSubmitSolutions_TooManyItems() {
+        // Arrange
+        UserDetailImpl studentUserDetails = new UserDetailImpl(studentUser);
+        List<SolutionRequest> requests = Collections.nCopies(1001, new SolutionRequest());
+
+        // Act
+        ResponseEntity<List<BulkItemResult>> response = assignmentController.submitSolutions(requests, studentUserDetails);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(solutionSubmissionService, never()).submitAll(any(), any());
+    }
+
     // ========== GIVE MARKS TESTS ==========
 
     @Test
@@ -269,8 +578,8 @@ class AssignmentControllerTest {
 
         UserDetailImpl adminUserDetails = new UserDetailImpl(adminUser);
 
-        when(solutionRepository.findById(1L)).thenReturn(Optional.of(testSolution));
-        when(solutionRepository.save(any(Solution.class))).thenReturn(testSolution);
+        when(solutionGradingService.grade(1L, 85))
+                .thenReturn(Optional.of(new SolutionGradingService.GradedRow(1L, null)));
 
         // Act
         ResponseEntity<String> response = assignmentController.giveMarks(request, adminUserDetails);
@@ -279,8 +588,8 @@ class AssignmentControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Marks updated successfully", response.getBody());
 
-        verify(solutionRepository, times(1)).findById(1L);
-        verify(solutionRepository, times(1)).save(any(Solution.class));
+        verify(solutionGradingService, times(1)).grade(1L, 85);
+        verify(solutionRepository, never()).save(any(Solution.class));
     }
 
     @Test
@@ -298,8 +607,7 @@ class AssignmentControllerTest {
         assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
         assertEquals("Authentication required", response.getBody());
 
-        verify(solutionRepository, never()).findById(anyLong());
-        verify(solutionRepository, never()).save(any(Solution.class));
+        verify(solutionGradingService, never()).grade(anyLong(), any());
     }
 
     @Test
@@ -319,8 +627,7 @@ class AssignmentControllerTest {
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
         assertEquals("Only admin can give marks", response.getBody());
 
-        verify(solutionRepository, never()).findById(anyLong());
-        verify(solutionRepository, never()).save(any(Solution.class));
+        verify(solutionGradingService, never()).grade(anyLong(), any());
     }
 
     @Test
@@ -333,14 +640,58 @@ class AssignmentControllerTest {
 
         UserDetailImpl adminUserDetails = new UserDetailImpl(adminUser);
 
-        when(solutionRepository.findById(999L)).thenReturn(Optional.empty());
+        when(solutionGradingService.grade(999L, 85)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> {
             assignmentController.giveMarks(request, adminUserDetails);
         });
 
-        verify(solutionRepository, times(1)).findById(999L);
-        verify(solutionRepository, never()).save(any(Solution.class));
+        verify(solutionGradingService, times(1)).grade(999L, 85);
+    }
+
+    // ========== BULK MARKS TESTS ==========
+
+    @Test
+    @DisplayName("Should bulk assign marks by admin")
+    void testGiveMarksBulk_Success() {
+        // Arrange
+        MarksRequest first = new MarksRequest();
+        first.setSolutionId(1L);
+        first.setMarks(85);
+        MarksRequest second = new MarksRequest();
+        second.setSolutionId(999L);
+        second.setMarks(70);
+        List<MarksRequest> requests = Arrays.asList(first, second);
+
+        UserDetailImpl adminUserDetails = new UserDetailImpl(adminUser);
+        List<BulkItemResult> results = Arrays.asList(
+                new BulkItemResult(0, 1L, BulkItemResult.Status.UPDATED, null),
+                new BulkItemResult(1, 999L, BulkItemResult.Status.NOT_FOUND, "Solution not found: 999"));
+
+        when(solutionGradingService.gradeAll(requests)).thenReturn(results);
+
+        // Act
+        ResponseEntity<List<BulkItemResult>> response = assignmentController.giveMarksBulk(requests, adminUserDetails);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(BulkItemResult.Status.NOT_FOUND, response.getBody().get(1).getStatus());
+        verify(solutionRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should fail to bulk assign marks when user is not admin")
+    void testGiveMarksBulk_NotAdmin() {
+        // Arrange
+        UserDetailImpl studentUserDetails = new UserDetailImpl(studentUser);
+
+        // Act
+        ResponseEntity<List<BulkItemResult>> response = assignmentController.giveMarksBulk(
+                Arrays.asList(new MarksRequest()), studentUserDetails);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(solutionGradingService, never()).gradeAll(any());
     }
-}
\ No newline at end of file
+}
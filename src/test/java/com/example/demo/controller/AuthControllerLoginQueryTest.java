@@ -0,0 +1,93 @@
+package com.example.demo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.dto.AuthRequest;
+import com.example.demo.dto.AuthResponse;
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.InMemoryTokenRevocationHook;
+import com.example.demo.security.JwtUtil;
+import com.example.demo.service.CachingUserDetailsService;
+import com.example.demo.service.UserDetailsServiceImpl;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("AuthController login query Tests")
+class AuthControllerLoginQueryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final InMemoryTokenRevocationHook revocationHook = new InMemoryTokenRevocationHook();
+    private final JwtUtil jwtUtil = new JwtUtil("mysecretkeymysecretkeymysecretkey12", 86_400_000L, revocationHook);
+    private AuthController authController;
+    private Statistics statistics;
+    private User student;
+
+    @BeforeEach
+    void setUp() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+        CachingUserDetailsService userDetailsService = new CachingUserDetailsService(
+                new UserDetailsServiceImpl(userRepository), revocationHook, new SimpleMeterRegistry(), 100, 300);
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        authController = new AuthController(userRepository, passwordEncoder, new ProviderManager(provider),
+                jwtUtil, userDetailsService, null);
+
+        student = new User();
+        student.setUsername("student");
+        student.setEmail("student@example.com");
+        student.setPassword(passwordEncoder.encode("password123"));
+        student.setRole(Role.STUDENT);
+        entityManager.persist(student);
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Login should query the user once and put id and role in the token")
+    void testLogin_SingleUserQuery() {
+        AuthRequest request = new AuthRequest();
+        request.setUsername("student");
+        request.setPassword("password123");
+
+        ResponseEntity<AuthResponse> response = authController.login(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        Claims claims = jwtUtil.extractClaims(response.getBody().getToken());
+        assertEquals("student", claims.getSubject());
+        assertEquals(student.getId(), claims.get("uid", Integer.class));
+        assertEquals("STUDENT", claims.get("role", String.class));
+    }
+}
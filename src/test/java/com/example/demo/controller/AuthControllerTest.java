@@ -1,6 +1,11 @@
 package com.example.demo.controller;
 
-import java.util.Optional;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -18,6 +23,8 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -27,12 +34,16 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.example.demo.dto.AuthRequest;
 import com.example.demo.dto.AuthResponse;
+import com.example.demo.dto.BulkItemResult;
 import com.example.demo.dto.RegisterRequest;
 import com.example.demo.model.Role;
 import com.example.demo.model.User;
 import com.example.demo.model.UserDetailImpl;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.security.JwtUtil;
+import com.example.demo.security.PasswordHashingBusyException;
+import com.example.demo.service.CachingUserDetailsService;
+import com.example.demo.service.UserEnrollmentService;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("AuthController Tests")
@@ -50,6 +61,12 @@ class AuthControllerTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private CachingUserDetailsService userDetailsCache;
+
+    @Mock
+    private UserEnrollmentService userEnrollmentService;
+
     @InjectMocks
     private AuthController authController;
 
@@ -83,9 +100,9 @@ class AuthControllerTest {
         request.setUsername("admin");
         request.setPassword("password123");
 
+        UserDetailImpl principal = new UserDetailImpl(adminUser);
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenReturn(null);
-        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(adminUser));
+                .thenReturn(UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
         when(jwtUtil.generateToken(adminUser)).thenReturn("mock-jwt-token");
 
         // Act
@@ -98,50 +115,49 @@ class AuthControllerTest {
         assertEquals("mock-jwt-token", response.getBody().getToken());
 
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(userRepository, times(1)).findByUsername("admin");
+        // The token is built from the authenticated principal, not from a second lookup
+        verify(userRepository, never()).findByUsername(anyString());
         verify(jwtUtil, times(1)).generateToken(adminUser);
     }
 
     @Test
-    @DisplayName("Should fail login with invalid credentials")
-    void testLogin_InvalidCredentials() {
+    @DisplayName("Should answer 503 with Retry-After when password hashing is saturated")
+    void testLogin_HashingBusy() {
         // Arrange
         AuthRequest request = new AuthRequest();
         request.setUsername("admin");
-        request.setPassword("wrongpassword");
+        request.setPassword("password123");
 
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenThrow(new BadCredentialsException("Invalid credentials"));
+                .thenThrow(new PasswordHashingBusyException("busy"));
 
-        // Act & Assert
-        assertThrows(BadCredentialsException.class, () -> {
-            authController.login(request);
-        });
+        // Act
+        ResponseEntity<AuthResponse> response = authController.login(request);
 
-        verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(userRepository, never()).findByUsername(anyString());
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
         verify(jwtUtil, never()).generateToken(any(User.class));
     }
 
     @Test
-    @DisplayName("Should throw exception when user not found after authentication")
-    void testLogin_UserNotFoundAfterAuth() {
+    @DisplayName("Should fail login with invalid credentials")
+    void testLogin_InvalidCredentials() {
         // Arrange
         AuthRequest request = new AuthRequest();
-        request.setUsername("nonexistent");
-        request.setPassword("password123");
+        request.setUsername("admin");
+        request.setPassword("wrongpassword");
 
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenReturn(null);
-        when(userRepository.findByUsername("nonexistent")).thenReturn(Optional.empty());
+                .thenThrow(new BadCredentialsException("Invalid credentials"));
 
         // Act & Assert
-        assertThrows(RuntimeException.class, () -> {
+        assertThrows(BadCredentialsException.class, () -> {
             authController.login(request);
         });
 
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(userRepository, times(1)).findByUsername("nonexistent");
+        verify(userRepository, never()).findByUsername(anyString());
         verify(jwtUtil, never()).generateToken(any(User.class));
     }
 
@@ -159,10 +175,8 @@ class AuthControllerTest {
 
         UserDetailImpl adminUserDetails = new UserDetailImpl(adminUser);
 
-        when(userRepository.existsByUsername("newstudent")).thenReturn(false);
-        when(userRepository.existsByEmail("newstudent@example.com")).thenReturn(false);
         when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
         ResponseEntity<String> response = authController.register(request, adminUserDetails);
@@ -172,10 +186,9 @@ class AuthControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("User registered successfully by admin", response.getBody());
 
-        verify(userRepository, times(1)).existsByUsername("newstudent");
-        verify(userRepository, times(1)).existsByEmail("newstudent@example.com");
         verify(passwordEncoder, times(1)).encode("password123");
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
+        verify(userDetailsCache, times(1)).evict("newstudent");
     }
 
     @Test
@@ -194,8 +207,8 @@ class AuthControllerTest {
         assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
         assertEquals("Authentication required", response.getBody());
 
-        verify(userRepository, never()).existsByUsername(anyString());
-        verify(userRepository, never()).save(any(User.class));
+        verify(passwordEncoder, never()).encode(anyString());
+        verify(userRepository, never()).saveAndFlush(any(User.class));
     }
 
     @Test
@@ -216,8 +229,8 @@ class AuthControllerTest {
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
         assertEquals("Only admins can register new users", response.getBody());
 
-        verify(userRepository, never()).existsByUsername(anyString());
-        verify(userRepository, never()).save(any(User.class));
+        verify(passwordEncoder, never()).encode(anyString());
+        verify(userRepository, never()).saveAndFlush(any(User.class));
     }
 
     @Test
@@ -231,7 +244,8 @@ class AuthControllerTest {
 
         UserDetailImpl adminUserDetails = new UserDetailImpl(adminUser);
 
-        when(userRepository.existsByUsername("existinguser")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicateKey(User.USERNAME_INDEX));
 
         // Act
         ResponseEntity<String> response = authController.register(request, adminUserDetails);
@@ -240,9 +254,7 @@ class AuthControllerTest {
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("Username already exists", response.getBody());
 
-        verify(userRepository, times(1)).existsByUsername("existinguser");
-        verify(userRepository, never()).existsByEmail(anyString());
-        verify(userRepository, never()).save(any(User.class));
+        verify(userDetailsCache, never()).evict(anyString());
     }
 
     @Test
@@ -256,8 +268,8 @@ class AuthControllerTest {
 
         UserDetailImpl adminUserDetails = new UserDetailImpl(adminUser);
 
-        when(userRepository.existsByUsername("newuser")).thenReturn(false);
-        when(userRepository.existsByEmail("existing@example.com")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicateKey(User.EMAIL_INDEX));
 
         // Act
         ResponseEntity<String> response = authController.register(request, adminUserDetails);
@@ -266,9 +278,7 @@ class AuthControllerTest {
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("Email already exists", response.getBody());
 
-        verify(userRepository, times(1)).existsByUsername("newuser");
-        verify(userRepository, times(1)).existsByEmail("existing@example.com");
-        verify(userRepository, never()).save(any(User.class));
+        verify(userDetailsCache, never()).evict(anyString());
     }
 
     @Test
@@ -283,10 +293,8 @@ class AuthControllerTest {
 
         UserDetailImpl adminUserDetails = new UserDetailImpl(adminUser);
 
-        when(userRepository.existsByUsername("newstudent")).thenReturn(false);
-        when(userRepository.existsByEmail("newstudent@example.com")).thenReturn(false);
         when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
             User savedUser = invocation.getArgument(0);
             assertEquals(Role.STUDENT, savedUser.getRole());
             return savedUser;
@@ -297,6 +305,68 @@ class AuthControllerTest {
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
+    }
+
+    // ========== BULK REGISTER TESTS ==========
+
+    @Test
+    @DisplayName("Should enroll a cohort for an admin and report every row")
+    void testRegisterBulk_Success() throws IOException {
+        // Arrange
+        InputStream upload = upload("[]");
+        UserEnrollmentService.EnrollmentRows rows = () -> null;
+        List<BulkItemResult> results = List.of(
+                new BulkItemResult(0, 10L, BulkItemResult.Status.CREATED, null),
+                new BulkItemResult(1, null, BulkItemResult.Status.CONFLICT, "Username already exists"));
+        when(userEnrollmentService.readJsonArray(upload)).thenReturn(rows);
+        when(userEnrollmentService.enroll(rows)).thenReturn(results);
+
+        // Act
+        ResponseEntity<List<BulkItemResult>> response =
+                authController.registerBulk(upload, new UserDetailImpl(adminUser));
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should refuse bulk enrollment by a non-admin without reading the upload")
+    void testRegisterBulkCsv_NotAdmin() throws IOException {
+        // Act
+        ResponseEntity<List<BulkItemResult>> response =
+                authController.registerBulkCsv(upload("username,password\ns1,secret"), new UserDetailImpl(studentUser));
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(userEnrollmentService, never()).readCsv(any());
+        verify(userEnrollmentService, never()).enroll(any());
+    }
+
+    @Test
+    @DisplayName("Should answer 400 for a CSV upload without the required columns")
+    void testRegisterBulkCsv_Malformed() throws IOException {
+        // Arrange
+        InputStream upload = upload("name\ns1");
+        when(userEnrollmentService.readCsv(upload)).thenThrow(new IllegalArgumentException("no username column"));
+
+        // Act
+        ResponseEntity<List<BulkItemResult>> response =
+                authController.registerBulkCsv(upload, new UserDetailImpl(adminUser));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(userEnrollmentService, never()).enroll(any());
+    }
+
+    private static InputStream upload(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // What the repository throws when the insert hits one of the unique indexes (MySQL wording)
+    private static DataIntegrityViolationException duplicateKey(String index) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException("Duplicate entry 'x' for key 'user." + index + "'"));
     }
-}
\ No newline at end of file
+}
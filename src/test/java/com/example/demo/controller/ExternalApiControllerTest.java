@@ -0,0 +1,141 @@
+package com.example.demo.controller;
+
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.example.demo.dto.ExternalDataDto;
+import com.example.demo.service.ExternalApiService;
+import com.example.demo.service.ExternalApiUnavailableException;
+
+import reactor.core.publisher.Flux;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExternalApiController Tests")
+class ExternalApiControllerTest {
+
+    @Mock
+    private ExternalApiService externalApiService;
+
+    @InjectMocks
+    private ExternalApiController externalApiController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(externalApiController).build();
+        lenient().when(externalApiService.getAllPostsWebClient()).thenReturn(Flux.just(post(1L), post(2L)));
+    }
+
+    @Test
+    @DisplayName("Should stream posts as NDJSON, one line per post, on an async dispatch")
+    void testGetAllPostsWebClient_StreamsNdjson() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/external/posts/webclient")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"id\":1,\"title\":\"post-1\",\"body\":\"b\",\"userId\":7}\n"
+                                + "{\"id\":2,\"title\":\"post-2\",\"body\":\"b\",\"userId\":7}\n"));
+    }
+
+    @Test
+    @DisplayName("Should stream posts as server-sent events")
+    void testGetAllPostsWebClient_StreamsServerSentEvents() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/external/posts/webclient")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(
+                        "data:{\"id\":1,\"title\":\"post-1\",\"body\":\"b\",\"userId\":7}\n\n"
+                                + "data:{\"id\":2,\"title\":\"post-2\",\"body\":\"b\",\"userId\":7}\n\n"));
+    }
+
+    @Test
+    @DisplayName("Should collect posts into a JSON array without blocking the request thread")
+    void testGetAllPostsWebClientBlocking_ReturnsJsonArray() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/external/posts/webclient/blocking"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].title").value("post-2"));
+    }
+
+    @Test
+    @DisplayName("Should answer 503 with Retry-After when the circuit is open and nothing is cached")
+    void testGetPostsByUserIdRestTemplate_CircuitOpen() throws Exception {
+        // Arrange
+        when(externalApiService.getPostsByUserIdRestTemplate(3L))
+                .thenThrow(new ExternalApiUnavailableException("Circuit 'external-api' is open"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/external/posts/resttemplate/user/3"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    @DisplayName("Should answer 503 with Retry-After when a stream fails before its first post")
+    void testGetAllPostsWebClient_CircuitOpen() throws Exception {
+        // Arrange
+        when(externalApiService.getAllPostsWebClient())
+                .thenReturn(Flux.error(new ExternalApiUnavailableException("Circuit 'external-api' is open")));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/external/posts/webclient")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    private static ExternalDataDto post(Long id) {
+        ExternalDataDto post = new ExternalDataDto();
+        post.setId(id);
+        post.setTitle("post-" + id);
+        post.setBody("b");
+        post.setUserId(7L);
+        return post;
+    }
+}
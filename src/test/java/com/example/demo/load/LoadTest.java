@@ -0,0 +1,297 @@
+package com.example.demo.load;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.sun.net.httpserver.HttpServer;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.NullNode;
+
+/**
+ * End-to-end load test: boots the application on the in-memory H2 profile, points the external
+ * API at a local stub, and has load.users virtual users each run load.iterations rounds of
+ * login -> list assignments -> submit -> list own submissions -> grade (as admin) -> external
+ * proxy call. Latency is recorded per endpoint, and p50/p99/max and throughput are written to
+ * load.report (default target/load-test-report.json). Every request must succeed; if
+ * load.max-p99-millis is set, every endpoint's p99 must stay under it.
+ *
+ * Excluded from the normal build; run with mvn -Pload test [-Dload.users=50 -Dload.iterations=20]
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+@DisplayName("End-to-end load test")
+class LoadTest {
+
+    private static final int USERS = Integer.getInteger("load.users", 20);
+    private static final int ITERATIONS = Integer.getInteger("load.iterations", 5);
+    private static final Path REPORT = Path.of(System.getProperty("load.report", "target/load-test-report.json"));
+    private static final Long MAX_P99_MILLIS = Long.getLong("load.max-p99-millis");
+    private static final long UPSTREAM_LATENCY_MILLIS = 20;
+    private static final String PASSWORD = "load-test-password";
+
+    private static final HttpServer upstream = startUpstreamStub();
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final Map<String, ConcurrentLinkedQueue<Long>> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> failures = new ConcurrentHashMap<>();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("external.api.base-url", () -> "http://localhost:" + upstream.getAddress().getPort());
+        registry.add("logging.level.com.example.demo", () -> "WARN");
+        registry.add("logging.level.com.example.demo.security", () -> "WARN");
+        registry.add("logging.level.com.example.demo.service.ExternalApiService", () -> "WARN");
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @Test
+    @DisplayName("Login, browse, submit and grade scenarios should succeed within the latency budget")
+    void testScenarios() throws Exception {
+        // Arrange: an admin, USERS students and one assignment per iteration
+        User admin = new User();
+        admin.setUsername("load-admin");
+        admin.setEmail("load-admin@example.com");
+        admin.setPassword(passwordEncoder.encode(PASSWORD));
+        admin.setRole(Role.ADMIN);
+        userRepository.save(admin);
+        String adminToken = login("load-admin");
+        StringBuilder cohort = new StringBuilder("username,email,password,role\n");
+        for (int user = 0; user < USERS; user++) {
+            cohort.append("student-").append(user).append(",student-").append(user).append("@example.com,")
+                    .append(PASSWORD).append(",STUDENT\n");
+        }
+        HttpResponse<String> enrolled = client.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/auth/register/bulk"))
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(cohort.toString()))
+                .header("Content-Type", "text/csv")
+                .header("Authorization", "Bearer " + adminToken)
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, enrolled.statusCode(), enrolled.body());
+        for (JsonNode result : objectMapper.readTree(enrolled.body())) {
+            assertEquals("CREATED", result.get("status").asString(), result.toString());
+        }
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            call("POST /assignments/create", adminToken, "POST", "/assignments/create", Map.of(
+                    "title", "load-" + iteration,
+                    "questions", List.of("q1", "q2")));
+        }
+        List<Long> assignmentIds = new ArrayList<>();
+        for (JsonNode item : call("GET /assignments/all", adminToken, "GET", "/assignments/all?limit=100", null)
+                .get("items")) {
+            assignmentIds.add(item.get("id").asLong());
+        }
+        assertEquals(ITERATIONS, assignmentIds.size());
+        latencies.clear();
+
+        // Act
+        long started = System.nanoTime();
+        try (ExecutorService users = Executors.newFixedThreadPool(USERS)) {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int user = 0; user < USERS; user++) {
+                String username = "student-" + user;
+                runs.add(users.submit(() -> runScenario(username, adminToken, assignmentIds)));
+            }
+            for (Future<?> run : runs) {
+                try {
+                    run.get();
+                } catch (ExecutionException e) {
+                    // Counted in failures; the report is still written
+                }
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        // Assert
+        Map<String, Object> report = writeReport(elapsed);
+        assertTrue(failures.isEmpty(), "Failed requests: " + failures);
+        if (MAX_P99_MILLIS != null) {
+            report.forEach((endpoint, stats) -> {
+                if (stats instanceof Map<?, ?> endpointStats && endpointStats.get("p99Millis") instanceof Double p99) {
+                    assertTrue(p99 <= MAX_P99_MILLIS, endpoint + " p99 " + p99 + " ms exceeds " + MAX_P99_MILLIS + " ms");
+                }
+            });
+        }
+    }
+
+    private Void runScenario(String username, String adminToken, List<Long> assignmentIds) throws Exception {
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            Long assignmentId = assignmentIds.get(iteration);
+            String token = login(username);
+            call("GET /assignments/all", token, "GET", "/assignments/all", null);
+            call("POST /assignments/submit", token, "POST", "/assignments/submit", Map.of(
+                    "assignmentId", assignmentId,
+                    "answers", List.of("a1", "a2")));
+            JsonNode submissions = call("GET /assignments/my-submissions", token, "GET",
+                    "/assignments/my-submissions?limit=100", null);
+            for (JsonNode submission : submissions.get("items")) {
+                if (submission.get("assignmentId").asLong() == assignmentId && submission.get("marks").isNull()) {
+                    call("POST /assignments/mark", adminToken, "POST", "/assignments/mark", Map.of(
+                            "solutionId", submission.get("solutionId").asLong(),
+                            "marks", 7));
+                }
+            }
+            call("GET /api/external/posts/resttemplate/{id}", token, "GET",
+                    "/api/external/posts/resttemplate/" + (iteration + 1), null);
+        }
+        return null;
+    }
+
+    private String login(String username) throws Exception {
+        return call("POST /auth/login", null, "POST", "/auth/login",
+                Map.of("username", username, "password", PASSWORD)).get("token").asString();
+    }
+
+    // Returns the parsed JSON body, or a null node for plain-text answers
+    private JsonNode call(String endpoint, String token, String method, String path, Object body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        long started = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            failures.computeIfAbsent(endpoint + " -> " + e.getClass().getSimpleName(), key -> new AtomicLong())
+                    .incrementAndGet();
+            throw e;
+        }
+        latencies.computeIfAbsent(endpoint, key -> new ConcurrentLinkedQueue<>()).add(System.nanoTime() - started);
+        if (response.statusCode() / 100 != 2) {
+            failures.computeIfAbsent(endpoint + " -> " + response.statusCode(), key -> new AtomicLong()).incrementAndGet();
+            throw new IllegalStateException(endpoint + " answered " + response.statusCode() + ": " + response.body());
+        }
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        return contentType.contains("json") ? objectMapper.readTree(response.body()) : NullNode.getInstance();
+    }
+
+    private Map<String, Object> writeReport(Duration elapsed) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", USERS);
+        report.put("iterations", ITERATIONS);
+        report.put("elapsedSeconds", elapsed.toMillis() / 1000.0);
+        Map<String, Long> failed = new LinkedHashMap<>();
+        failures.forEach((failure, count) -> failed.put(failure, count.get()));
+        report.put("failures", failed);
+        latencies.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    long[] nanos = entry.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+                    Map<String, Object> stats = new LinkedHashMap<>();
+                    stats.put("requests", nanos.length);
+                    stats.put("throughputPerSecond", nanos.length * 1_000.0 / Math.max(1, elapsed.toMillis()));
+                    stats.put("p50Millis", percentileMillis(nanos, 0.50));
+                    stats.put("p99Millis", percentileMillis(nanos, 0.99));
+                    stats.put("maxMillis", nanos[nanos.length - 1] / 1_000_000.0);
+                    report.put(entry.getKey(), stats);
+                });
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(REPORT.toFile(), report);
+        return report;
+    }
+
+    // Nearest-rank percentile
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        int rank = (int) Math.ceil(percentile * sortedNanos.length);
+        return sortedNanos[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+
+    private static HttpServer startUpstreamStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+            server.createContext("/posts", exchange -> {
+                try {
+                    Thread.sleep(UPSTREAM_LATENCY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                String query = exchange.getRequestURI().getQuery();
+                String path = exchange.getRequestURI().getPath();
+                List<String> ids = new ArrayList<>();
+                if (path.startsWith("/posts/")) {
+                    ids.add(path.substring("/posts/".length()));
+                } else if (query != null && query.startsWith("id=")) {
+                    for (String param : query.split("&")) {
+                        ids.add(param.substring("id=".length()));
+                    }
+                }
+                List<String> posts = ids.stream()
+                        .map(id -> "{\"id\":" + id + ",\"title\":\"post-" + id + "\",\"body\":\"b\",\"userId\":1}")
+                        .toList();
+                String body = path.startsWith("/posts/") ? posts.get(0) : "[" + String.join(",", posts) + "]";
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            });
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start the upstream stub", e);
+        }
+    }
+}
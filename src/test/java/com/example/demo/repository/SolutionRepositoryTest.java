@@ -0,0 +1,156 @@
+package com.example.demo.repository;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.dto.SubmissionSummary;
+import com.example.demo.model.Assignment;
+import com.example.demo.model.Role;
+import com.example.demo.model.Solution;
+import com.example.demo.model.User;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("SolutionRepository Tests")
+class SolutionRepositoryTest {
+
+    @Autowired
+    private SolutionRepository solutionRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Listing solutions should cost the same number of statements for 3 and 30 solutions")
+    void testFindByAssignmentId_StatementCountIsConstant() {
+        Long small = createAssignmentWithSolutions("small", 3);
+        Long large = createAssignmentWithSolutions("large", 30);
+
+        long smallCount = countStatementsWhileListing(small, 3);
+        long largeCount = countStatementsWhileListing(large, 30);
+
+        assertEquals(1, smallCount);
+        assertEquals(smallCount, largeCount);
+    }
+
+    @Test
+    @DisplayName("Keyset pages of a student's submissions should cover each own solution once, in order")
+    void testFindSubmissionsAfter_PagesThroughOwnSolutions() {
+        User student = createStudent("pager");
+        User other = createStudent("other");
+        Assignment first = createAssignment("first");
+        Assignment second = createAssignment("second");
+        Solution a = createSolution(second, student);
+        Solution b = createSolution(first, student);
+        Solution c = createSolution(second, student);
+        createSolution(first, other);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<SubmissionSummary> page1 = solutionRepository.findSubmissionsAfter(student.getId(), 0L, 0L, Limit.of(2));
+        SubmissionSummary last = page1.get(1);
+        List<SubmissionSummary> page2 = solutionRepository.findSubmissionsAfter(
+                student.getId(), last.getAssignmentId(), last.getSolutionId(), Limit.of(2));
+
+        assertEquals(List.of(b.getId(), a.getId()), page1.stream().map(SubmissionSummary::getSolutionId).toList());
+        assertEquals(List.of(c.getId()), page2.stream().map(SubmissionSummary::getSolutionId).toList());
+        assertEquals("second", page2.get(0).getAssignmentTitle());
+        // One select per page, no entities loaded
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    private User createStudent(String username) {
+        User student = new User();
+        student.setUsername(username);
+        student.setEmail(username + "@example.com");
+        student.setPassword("encodedPassword");
+        student.setRole(Role.STUDENT);
+        entityManager.persist(student);
+        return student;
+    }
+
+    private Assignment createAssignment(String title) {
+        Assignment assignment = new Assignment();
+        assignment.setTitle(title);
+        assignment.setQuestions(Arrays.asList("Q1"));
+        entityManager.persist(assignment);
+        return assignment;
+    }
+
+    private Solution createSolution(Assignment assignment, User student) {
+        Solution solution = new Solution();
+        solution.setAssignment(assignment);
+        solution.setStudent(student);
+        solution.setAnswers(Arrays.asList("A1"));
+        entityManager.persist(solution);
+        return solution;
+    }
+
+    private long countStatementsWhileListing(Long assignmentId, int expectedSolutions) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<Solution> solutions = solutionRepository.findByAssignmentIdOrderById(assignmentId);
+        // Touch everything a grading view would render
+        solutions.forEach(solution -> {
+            solution.getStudent().getUsername();
+            solution.getAnswers().size();
+        });
+
+        assertEquals(expectedSolutions, solutions.size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Long createAssignmentWithSolutions(String title, int count) {
+        Assignment assignment = new Assignment();
+        assignment.setTitle(title);
+        assignment.setQuestions(Arrays.asList("Q1", "Q2"));
+        entityManager.persist(assignment);
+
+        for (int i = 0; i < count; i++) {
+            User student = new User();
+            student.setUsername(title + "-student-" + i);
+            student.setEmail(title + "-student-" + i + "@example.com");
+            student.setPassword("encodedPassword");
+            student.setRole(Role.STUDENT);
+            entityManager.persist(student);
+
+            Solution solution = new Solution();
+            solution.setAssignment(assignment);
+            solution.setStudent(student);
+            solution.setAnswers(Arrays.asList("A1", "A2"));
+            entityManager.persist(solution);
+        }
+        entityManager.flush();
+        return assignment.getId();
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demo.security;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.CachingUserDetailsService;
+import com.example.demo.service.UserDetailsServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void shouldHashOnItsOwnThreads() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        AtomicReference<String> hashingThread = new AtomicReference<>();
+        encoder = new BoundedPasswordEncoder(new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                hashingThread.set(Thread.currentThread().getName());
+                return bcrypt.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return bcrypt.matches(rawPassword, encodedPassword);
+            }
+        }, 1, 1);
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals("password-hashing-0", hashingThread.get());
+    }
+
+    @Test
+    void shouldFailFastOnceThreadsAndQueueAreFull() throws Exception {
+        CountDownLatch hashing = new CountDownLatch(1);
+        PasswordEncoder slow = mock(PasswordEncoder.class);
+        when(slow.matches(anyString(), anyString())).thenAnswer(invocation -> {
+            hashing.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        });
+        when(slow.upgradeEncoding(anyString())).thenReturn(true);
+        encoder = new BoundedPasswordEncoder(slow, 1, 1);
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("a", "hash"));
+        assertTrue(hashing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("b", "hash"));
+        while (encoder.getExecutor().getQueue().isEmpty()) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.matches("c", "hash"));
+        // No upgrade while hashes are waiting
+        assertFalse(encoder.upgradeEncoding("hash"));
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+        assertTrue(encoder.upgradeEncoding("hash"));
+    }
+
+    @Test
+    void shouldUpgradeWeakerHashOnSuccessfulLogin() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 4);
+        User user = new User(1, "student", new BCryptPasswordEncoder(4).encode("secret"), "s@example.com", Role.STUDENT);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername("student")).thenReturn(Optional.of(user));
+        CachingUserDetailsService userDetailsService = new CachingUserDetailsService(
+                new UserDetailsServiceImpl(userRepository), new InMemoryTokenRevocationHook(),
+                new SimpleMeterRegistry(), 100, 300);
+        DaoAuthenticationProvider provider = new RehashingAuthenticationProvider(userDetailsService, encoder,
+                userDetailsService);
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("student", "secret"));
+
+        ArgumentCaptor<String> rehashed = ArgumentCaptor.forClass(String.class);
+        verify(userRepository).updatePassword(eq("student"), rehashed.capture());
+        assertTrue(rehashed.getValue().startsWith("$2a$05$"));
+        assertTrue(encoder.matches("secret", rehashed.getValue()));
+    }
+
+    @Test
+    void shouldKeepOldHashWhenRehashIsRefused() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        PasswordEncoder busyOnEncode = mock(PasswordEncoder.class);
+        when(busyOnEncode.matches(anyString(), anyString()))
+                .thenAnswer(invocation -> bcrypt.matches(invocation.getArgument(0), invocation.getArgument(1)));
+        when(busyOnEncode.upgradeEncoding(anyString())).thenReturn(true);
+        // Only the rehash; the provider also encodes a dummy password for its timing-attack guard
+        when(busyOnEncode.encode("secret")).thenThrow(new PasswordHashingBusyException("busy"));
+        User user = new User(1, "student", bcrypt.encode("secret"), "s@example.com", Role.STUDENT);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername("student")).thenReturn(Optional.of(user));
+        UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl(userRepository);
+        DaoAuthenticationProvider provider = new RehashingAuthenticationProvider(userDetailsService, busyOnEncode,
+                userDetailsService);
+
+        Authentication authentication = provider.authenticate(new UsernamePasswordAuthenticationToken("student", "secret"));
+
+        assertTrue(authentication.isAuthenticated());
+        verify(userRepository, never()).updatePassword(anyString(), anyString());
+    }
+
+    @Test
+    void shouldKeepHashAtConfiguredStrength() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 4);
+        User user = new User(1, "student", new BCryptPasswordEncoder(4).encode("secret"), "s@example.com", Role.STUDENT);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername("student")).thenReturn(Optional.of(user));
+        UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl(userRepository);
+        DaoAuthenticationProvider provider = new RehashingAuthenticationProvider(userDetailsService, encoder,
+                userDetailsService);
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("student", "secret"));
+
+        verify(userRepository, never()).updatePassword(anyString(), anyString());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.security;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.CachingUserDetailsService;
+import com.example.demo.service.UserDetailsServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+
+class JwtAuthFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InMemoryTokenRevocationHook revocationHook = new InMemoryTokenRevocationHook();
+    private final JwtUtil jwtUtil = new JwtUtil("mysecretkeymysecretkeymysecretkey12", 86_400_000L, revocationHook);
+    private CachingUserDetailsService userDetailsService;
+    private JwtAuthFilter jwtAuthFilter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(1);
+        user.setUsername("student");
+        user.setRole(Role.STUDENT);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername("student")).thenReturn(Optional.of(user));
+        userDetailsService = new CachingUserDetailsService(
+                new UserDetailsServiceImpl(userRepository), revocationHook, meterRegistry, 100, 300);
+        jwtAuthFilter = new JwtAuthFilter(jwtUtil, userDetailsService, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldTimeEachPhaseOfAnAuthenticatedRequest() throws ServletException, IOException {
+        filter(jwtUtil.generateToken(user));
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        for (String phase : new String[] { "parse", "user_load", "validate" }) {
+            assertEquals(1, meterRegistry.get(JwtAuthFilter.PHASE_TIMER).tag("phase", phase).timer().count(), phase);
+        }
+        assertNull(meterRegistry.find(JwtAuthFilter.FAILURE_COUNTER).counter());
+    }
+
+    @Test
+    void shouldCountFailuresByJwtExceptionType() throws ServletException, IOException {
+        JwtUtil otherKey = new JwtUtil("anothersecretkeyanothersecretkey1234", 86_400_000L,
+                new InMemoryTokenRevocationHook());
+
+        filter("not-a-jwt");
+        filter(otherKey.generateToken(user));
+        filter(otherKey.generateToken(user));
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1, meterRegistry.get(JwtAuthFilter.FAILURE_COUNTER).tag("reason", "malformed").counter().count());
+        assertEquals(2, meterRegistry.get(JwtAuthFilter.FAILURE_COUNTER).tag("reason", "signature").counter().count());
+        assertEquals(0, meterRegistry.get(JwtAuthFilter.PHASE_TIMER).tag("phase", "user_load").timer().count());
+    }
+
+    @Test
+    void shouldRejectClaimsBasedTokensIssuedBeforeARoleOrPasswordChange() throws ServletException, IOException {
+        ReflectionTestUtils.setField(jwtAuthFilter, "statelessPrincipal", true);
+        String beforeRoleChange = jwtUtil.generateToken(user);
+
+        userDetailsService.invalidate("student");
+        filter(beforeRoleChange);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+        String beforePasswordChange = jwtUtil.generateToken(user);
+        filter(beforePasswordChange);
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+
+        userDetailsService.updatePassword(userDetailsService.loadUserByUsername("student"), "newHash");
+        filter(beforePasswordChange);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(2, meterRegistry.get(JwtAuthFilter.FAILURE_COUNTER).tag("reason", "revoked").counter().count());
+
+        filter(jwtUtil.generateToken(user));
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private void filter(String token) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/assignments/all");
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtAuthFilter.doFilterInternal(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+}
@@ -3,6 +3,8 @@ package com.example.demo.security;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,9 +13,13 @@ import com.example.demo.model.Role;
 import com.example.demo.model.User;
 import com.example.demo.model.UserDetailImpl;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.security.SignatureException;
+
 class JwtUtilTest {
 
-    private final JwtUtil jwtUtil = new JwtUtil();
+    private final InMemoryTokenRevocationHook revocationHook = new InMemoryTokenRevocationHook();
+    private final JwtUtil jwtUtil = new JwtUtil("mysecretkeymysecretkeymysecretkey12", 86_400_000L, revocationHook);
 
     @Test
     void shouldGenerateAndValidateToken() {
@@ -54,4 +60,68 @@ class JwtUtilTest {
 
         assertFalse(jwtUtil.isTokenValid(token, wrongUserDetails));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldServeRepeatedVerificationFromCache() {
+        User user = new User();
+        user.setUsername("testuser");
+        user.setRole(Role.STUDENT);
+
+        String token = jwtUtil.generateToken(user);
+
+        Claims first = jwtUtil.extractClaims(token);
+        Claims second = jwtUtil.extractClaims(token);
+
+        assertSame(first, second);
+        assertTrue(jwtUtil.isTokenValid(first, new UserDetailImpl(user)));
+    }
+
+    @Test
+    void shouldRejectTamperedTokenEvenAfterOriginalWasCached() {
+        User user = new User();
+        user.setUsername("testuser");
+        user.setRole(Role.STUDENT);
+
+        String token = jwtUtil.generateToken(user);
+        jwtUtil.extractClaims(token);
+
+        // Flip a character inside the signature: unlike the last one, it carries no padding bits,
+        // so the decoded signature always changes
+        int position = token.lastIndexOf('.') + 10;
+        char flipped = token.charAt(position) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, position) + flipped + token.substring(position + 1);
+
+        assertThrows(SignatureException.class, () -> jwtUtil.extractClaims(tampered));
+    }
+
+    @Test
+    void shouldRebuildPrincipalFromClaims() {
+        User user = new User();
+        user.setId(7);
+        user.setUsername("testuser");
+        user.setRole(Role.ADMIN);
+
+        Claims claims = jwtUtil.extractClaims(jwtUtil.generateToken(user));
+        UserDetailImpl principal = jwtUtil.toUserDetails(claims);
+
+        assertTrue(jwtUtil.hasPrincipalClaims(claims));
+        assertEquals(7, principal.getUser().getId());
+        assertEquals("testuser", principal.getUsername());
+        assertEquals(Role.ADMIN, principal.getUser().getRole());
+    }
+
+    @Test
+    void shouldRejectTokensIssuedBeforeRevocation() {
+        User user = new User();
+        user.setId(7);
+        user.setUsername("testuser");
+        user.setRole(Role.ADMIN);
+
+        Claims oldClaims = jwtUtil.extractClaims(jwtUtil.generateToken(user));
+        revocationHook.revoke(7);
+        Claims newClaims = jwtUtil.extractClaims(jwtUtil.generateToken(user));
+
+        assertTrue(jwtUtil.isRevoked(oldClaims));
+        assertFalse(jwtUtil.isRevoked(newClaims));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.service;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.demo.dto.AssignmentStatistics;
+import com.example.demo.dto.MarksCount;
+import com.example.demo.repository.SolutionRepository;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AssignmentStatisticsService Tests")
+class AssignmentStatisticsServiceTest {
+
+    @Mock
+    private SolutionRepository solutionRepository;
+
+    @InjectMocks
+    private AssignmentStatisticsService assignmentStatisticsService;
+
+    @BeforeEach
+    void setUp() {
+        when(solutionRepository.countByAssignmentAndMarks()).thenReturn(Arrays.asList(
+                new MarksCount(1L, null, 2L),
+                new MarksCount(1L, 70, 1L),
+                new MarksCount(1L, 95, 1L)));
+        assignmentStatisticsService.rebuild();
+    }
+
+    @Test
+    @DisplayName("Should rebuild the aggregate from grouped solution counts")
+    void testRebuild() {
+        // Act
+        AssignmentStatistics statistics = assignmentStatisticsService.getStatistics(1L);
+
+        // Assert
+        assertEquals(4, statistics.getSubmissionCount());
+        assertEquals(2, statistics.getGradedCount());
+        assertEquals(82.5, statistics.getMeanMarks());
+        assertEquals(70, statistics.getMinMarks());
+        assertEquals(95, statistics.getMaxMarks());
+        assertEquals(Map.of(70, 1L, 90, 1L), statistics.getHistogram());
+    }
+
+    @Test
+    @DisplayName("Should apply submissions, first gradings and regradings incrementally")
+    void testIncrementalUpdates() {
+        // Act
+        assignmentStatisticsService.recordSubmission(1L);
+        assignmentStatisticsService.recordMarks(1L, null, 80);
+        assignmentStatisticsService.recordMarks(1L, 95, 75);
+
+        // Assert
+        AssignmentStatistics statistics = assignmentStatisticsService.getStatistics(1L);
+        assertEquals(5, statistics.getSubmissionCount());
+        assertEquals(3, statistics.getGradedCount());
+        assertEquals(75.0, statistics.getMeanMarks());
+        assertEquals(70, statistics.getMinMarks());
+        assertEquals(80, statistics.getMaxMarks());
+        assertEquals(Map.of(70, 2L, 80, 1L), statistics.getHistogram());
+    }
+
+    @Test
+    @DisplayName("Should return empty statistics for an assignment without solutions")
+    void testUnknownAssignment() {
+        // Act
+        AssignmentStatistics statistics = assignmentStatisticsService.getStatistics(42L);
+
+        // Assert
+        assertEquals(0, statistics.getSubmissionCount());
+        assertEquals(0, statistics.getGradedCount());
+        assertNull(statistics.getMeanMarks());
+        assertNull(statistics.getMinMarks());
+        assertEquals(Map.of(), statistics.getHistogram());
+    }
+}
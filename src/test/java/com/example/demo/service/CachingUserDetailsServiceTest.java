@@ -0,0 +1,135 @@
+package com.example.demo.service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import static org.mockito.Mockito.doAnswer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.model.UserDetailImpl;
+import com.example.demo.security.InMemoryTokenRevocationHook;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CachingUserDetailsService Tests")
+class CachingUserDetailsServiceTest {
+
+    @Mock
+    private UserDetailsServiceImpl delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CachingUserDetailsService cachingService;
+    private UserDetails testUserDetails;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cachingService = new CachingUserDetailsService(delegate, new InMemoryTokenRevocationHook(), meterRegistry, 100, 300);
+
+        User testUser = new User();
+        testUser.setId(1);
+        testUser.setUsername("testuser");
+        testUser.setRole(Role.STUDENT);
+        testUserDetails = new UserDetailImpl(testUser);
+    }
+
+    @Test
+    @DisplayName("Should load user once and serve repeated lookups from cache")
+    void testLoadUserByUsername_CachesResult() {
+        when(delegate.loadUserByUsername("testuser")).thenReturn(testUserDetails);
+
+        UserDetails first = cachingService.loadUserByUsername("testuser");
+        UserDetails second = cachingService.loadUserByUsername("testuser");
+
+        assertSame(first, second);
+        verify(delegate, times(1)).loadUserByUsername("testuser");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "userDetails").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should reload user after invalidation")
+    void testInvalidate_ForcesReload() {
+        when(delegate.loadUserByUsername("testuser")).thenReturn(testUserDetails);
+
+        cachingService.loadUserByUsername("testuser");
+        cachingService.invalidate("testuser");
+        cachingService.loadUserByUsername("testuser");
+
+        verify(delegate, times(2)).loadUserByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("Should not cache unknown users")
+    void testLoadUserByUsername_DoesNotCacheMisses() {
+        when(delegate.loadUserByUsername("nonexistent"))
+                .thenThrow(new UsernameNotFoundException("User not found: nonexistent"));
+
+        assertThrows(UsernameNotFoundException.class, () -> cachingService.loadUserByUsername("nonexistent"));
+        assertThrows(UsernameNotFoundException.class, () -> cachingService.loadUserByUsername("nonexistent"));
+
+        verify(delegate, times(2)).loadUserByUsername("nonexistent");
+    }
+
+    @Test
+    @DisplayName("Concurrent misses on virtual threads should share one load without pinning carrier threads")
+    void testLoadUserByUsername_DoesNotPinVirtualThreads() throws Exception {
+        // Arrange: a slow database read
+        doAnswer(invocation -> {
+            Thread.sleep(100);
+            return testUserDetails;
+        }).when(delegate).loadUserByUsername("testuser");
+        Path events = Files.createTempFile("pinning", ".jfr");
+
+        // Act
+        List<UserDetails> loaded = new ArrayList<>();
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(20));
+            recording.start();
+            try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<UserDetails>> results = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    results.add(callers.submit(() -> cachingService.loadUserByUsername("testuser")));
+                }
+                for (Future<UserDetails> result : results) {
+                    loaded.add(result.get());
+                }
+            }
+            recording.stop();
+            recording.dump(events);
+        }
+
+        // Assert
+        loaded.forEach(userDetails -> assertSame(testUserDetails, userDetails));
+        verify(delegate, times(1)).loadUserByUsername("testuser");
+        long pinned = RecordingFile.readAllEvents(events).stream()
+                .filter(event -> event.getEventType().getName().equals("jdk.VirtualThreadPinned"))
+                .count();
+        Files.delete(events);
+        assertEquals(0, pinned);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("CircuitBreaker Tests")
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = new CircuitBreaker("test", 3, Duration.ofSeconds(10), now::get);
+    }
+
+    @Test
+    @DisplayName("Should open after the threshold of consecutive failures and refuse calls while open")
+    void testOpensAfterConsecutiveFailures() {
+        // Act
+        fail(2);
+        circuitBreaker.tryAcquirePermission();
+        circuitBreaker.onSuccess(); // resets the run
+        fail(3);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    @DisplayName("Should let one trial call through after the open period and close when it succeeds")
+    void testHalfOpenTrialSucceeds() {
+        // Arrange
+        fail(3);
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // Act & Assert
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission()); // only one trial at a time
+
+        circuitBreaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    @DisplayName("Should open again for a full period when the trial call fails")
+    void testHalfOpenTrialFails() {
+        // Arrange
+        fail(3);
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // Act
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onFailure();
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    @DisplayName("An abandoned trial call should free the trial slot without closing the circuit")
+    void testHalfOpenTrialReleased() {
+        // Arrange
+        fail(3);
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // Act
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.releasePermission();
+
+        // Assert
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertEquals(3, circuitBreaker.getConsecutiveFailures());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            circuitBreaker.tryAcquirePermission();
+            circuitBreaker.onFailure();
+        }
+    }
+}
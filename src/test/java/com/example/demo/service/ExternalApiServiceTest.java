@@ -0,0 +1,406 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.config.RestTemplateConfig;
+import com.example.demo.dto.ExternalDataDto;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.netty.resources.ConnectionProvider;
+
+@DisplayName("ExternalApiService Tests")
+class ExternalApiServiceTest {
+
+    private final Map<String, AtomicInteger> upstreamCalls = new ConcurrentHashMap<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private volatile String firstTitle = "first";
+    private volatile boolean slowUpstream;
+
+    private HttpServer server;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private ConnectionProvider connectionProvider;
+    private ExternalApiService externalApiService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/posts", this::handlePosts);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        RestTemplateConfig config = new RestTemplateConfig(
+                "http://localhost:" + server.getAddress().getPort(), 500, 1000, 16, 1000, 30, 300);
+        connectionManager = config.externalApiConnectionManager();
+        httpClient = config.externalApiHttpClient(connectionManager);
+        connectionProvider = config.externalApiConnectionProvider();
+        externalApiService = new ExternalApiService(config.restTemplate(httpClient),
+                config.webClient(connectionProvider), meterRegistry, 100, 1, 600, 50, 20, 1000, 2, 30, 4, false);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        externalApiService.shutdown();
+        httpClient.close();
+        connectionProvider.dispose();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("RestTemplate should resolve paths against the base URL and reuse one pooled connection")
+    void testRestTemplate_ReusesPooledConnection() {
+        // Act
+        ExternalDataDto post = externalApiService.getPostByIdRestTemplate(1L);
+        List<ExternalDataDto> byUser = externalApiService.getPostsByUserIdRestTemplate(7L);
+        List<ExternalDataDto> all = externalApiService.getAllPostsRestTemplate();
+
+        // Assert
+        assertEquals("first", post.getTitle());
+        assertEquals(2, byUser.size());
+        assertEquals(2, all.size());
+        // Sequential calls kept the connection alive and returned it to the pool
+        assertEquals(1, connectionManager.getTotalStats().getAvailable());
+        assertEquals(0, connectionManager.getTotalStats().getLeased());
+    }
+
+    @Test
+    @DisplayName("WebClient should resolve paths against the base URL")
+    void testWebClient_UsesBaseUrl() {
+        // Act
+        ExternalDataDto post = externalApiService.getPostByIdWebClient(1L).block();
+        List<ExternalDataDto> byUser = externalApiService.getPostsByUserIdWebClient(7L).collectList().block();
+
+        // Assert
+        assertEquals("first", post.getTitle());
+        assertEquals(2, byUser.size());
+    }
+
+    @Test
+    @DisplayName("A streamed WebClient list should be cached once it completes and replayed from the cache")
+    void testWebClientStream_IsCachedOnCompletion() {
+        // Act
+        List<ExternalDataDto> streamed = externalApiService.getAllPostsWebClient().collectList().block();
+        List<ExternalDataDto> replayed = externalApiService.getAllPostsWebClient().collectList().block();
+        List<ExternalDataDto> firstOnly = externalApiService.getPostsByUserIdWebClient(7L).take(1).collectList().block();
+        List<ExternalDataDto> afterCancel = externalApiService.getPostsByUserIdWebClient(7L).collectList().block();
+
+        // Assert
+        assertEquals(2, streamed.size());
+        assertEquals(streamed, replayed);
+        assertEquals(1, upstreamCalls.get("/posts").get());
+        assertEquals(1, firstOnly.size());
+        assertEquals(2, afterCancel.size());
+        // The cancelled stream was not cached as a partial list
+        assertEquals(2, upstreamCalls.get("/posts?userId=7").get());
+        assertEquals(4, externalApiService.getAvailableCalls());
+    }
+
+    @Test
+    @DisplayName("Concurrent streams of an uncached list should share one upstream call, beyond the bulkhead limit")
+    void testWebClientStream_CoalescesConcurrentMisses() {
+        // Act: twice as many subscribers as bulkhead permits while the first stream is in flight
+        List<List<ExternalDataDto>> results = Flux.range(0, 8)
+                .flatMap(i -> externalApiService.getPostsByUserIdWebClient(3L).collectList())
+                .collectList()
+                .block();
+
+        // Assert
+        assertEquals(8, results.size());
+        assertTrue(results.stream().allMatch(posts -> posts.size() == 2), results.toString());
+        assertEquals(1, upstreamCalls.get("/posts?userId=3").get());
+        assertEquals(4, externalApiService.getAvailableCalls());
+    }
+
+    @Test
+    @DisplayName("Upstream calls should be timed by client, endpoint and outcome, but cache hits not")
+    void testUpstreamCalls_AreTimedByClient() {
+        // Act
+        externalApiService.getAllPostsRestTemplate();
+        externalApiService.getAllPostsRestTemplate();
+        externalApiService.getAllPostsWebClient().collectList().block();
+        externalApiService.getPostByIdWebClient(1L).block();
+
+        // Assert
+        assertEquals(1, upstreamTimer("restTemplate", "all_posts").count());
+        assertEquals(1, upstreamTimer("webClient", "all_posts").count());
+        assertEquals(1, upstreamTimer("webClient", "post_by_id").count());
+        assertEquals(3, meterRegistry.get("external.api.upstream").timers().size());
+    }
+
+    @Test
+    @DisplayName("Repeated and concurrent requests for the same post should cause one upstream call per client")
+    void testConcurrentMisses_AreCoalesced() throws Exception {
+        // Arrange
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Callable<ExternalDataDto>> restTemplateCalls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            restTemplateCalls.add(() -> externalApiService.getPostByIdRestTemplate(3L));
+        }
+
+        // Act
+        List<Future<ExternalDataDto>> results = callers.invokeAll(restTemplateCalls);
+        List<ExternalDataDto> webClientResults = Flux.range(0, 8)
+                .flatMap(i -> externalApiService.getPostByIdWebClient(3L))
+                .collectList()
+                .block();
+        callers.shutdown();
+
+        // Assert
+        for (Future<ExternalDataDto> result : results) {
+            assertEquals("post-3", result.get().getTitle());
+        }
+        assertEquals(8, webClientResults.size());
+        assertEquals(2, upstreamCalls.get("/posts?id=3").get()); // one per client
+    }
+
+    @Test
+    @DisplayName("Different posts requested together should be fetched with one batched call per client")
+    void testConcurrentLookups_AreBatched() throws Exception {
+        // Arrange
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        List<Callable<ExternalDataDto>> restTemplateCalls = new ArrayList<>();
+        for (long id = 4; id <= 7; id++) {
+            long postId = id;
+            restTemplateCalls.add(() -> externalApiService.getPostByIdRestTemplate(postId));
+        }
+
+        // Act
+        List<Future<ExternalDataDto>> results = callers.invokeAll(restTemplateCalls);
+        List<ExternalDataDto> webClientResults = Flux.range(4, 4)
+                .flatMap(id -> externalApiService.getPostByIdWebClient((long) id))
+                .collectList()
+                .block();
+        callers.shutdown();
+
+        // Assert
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals("post-" + (i + 4), results.get(i).get().getTitle());
+        }
+        assertEquals(4, webClientResults.size());
+        long batchedCalls = upstreamCalls.keySet().stream().filter(key -> key.startsWith("/posts?id=")).count();
+        long singleCalls = upstreamCalls.keySet().stream().filter(key -> key.startsWith("/posts/")).count();
+        assertEquals(0, singleCalls);
+        assertTrue(batchedCalls <= 4, "expected few batched calls but got " + upstreamCalls.keySet());
+    }
+
+    @Test
+    @DisplayName("A response older than refresh-seconds should be served stale while it reloads")
+    void testStaleWhileRevalidate() throws Exception {
+        // Arrange
+        assertEquals("first", externalApiService.getPostByIdRestTemplate(1L).getTitle());
+        firstTitle = "changed";
+        Thread.sleep(1_100);
+
+        // Act
+        String stale = externalApiService.getPostByIdRestTemplate(1L).getTitle();
+
+        // Assert
+        assertEquals("first", stale);
+        String refreshed = stale;
+        for (int i = 0; i < 50 && !refreshed.equals("changed"); i++) {
+            Thread.sleep(20);
+            refreshed = externalApiService.getPostByIdRestTemplate(1L).getTitle();
+        }
+        assertEquals("changed", refreshed);
+        assertEquals(2, upstreamCalls.get("/posts?id=1").get());
+    }
+
+    @Test
+    @DisplayName("Both clients should give up on a response slower than external.api.timeout")
+    void testSlowResponse_TimesOut() {
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> externalApiService.getPostByIdRestTemplate(999L));
+        assertThrows(RuntimeException.class, () -> externalApiService.getPostByIdWebClient(999L).block());
+    }
+
+    // Serves /posts, /posts?userId=.., /posts/{id} and /posts?id=..&id=..; ids 3 and 999 are slow
+    @Test
+    @DisplayName("Should open the circuit after consecutive timeouts, then fail fast and report DEGRADED")
+    void testCircuitBreaker_OpensAndFailsFast() {
+        // Arrange: the failure threshold is 2
+        slowUpstream = true;
+        assertThrows(RuntimeException.class, () -> externalApiService.getPostsByUserIdRestTemplate(1L));
+        assertThrows(RuntimeException.class, () -> externalApiService.getPostsByUserIdRestTemplate(2L));
+        int callsBefore = upstreamCalls.values().stream().mapToInt(AtomicInteger::get).sum();
+        slowUpstream = false;
+
+        // Act
+        long start = System.nanoTime();
+        assertThrows(ExternalApiUnavailableException.class,
+                () -> externalApiService.getPostsByUserIdRestTemplate(3L));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertTrue(elapsedMillis < 200, "open circuit should fail fast but took " + elapsedMillis + " ms");
+        assertEquals(callsBefore, upstreamCalls.values().stream().mapToInt(AtomicInteger::get).sum());
+        assertEquals(CircuitBreaker.State.OPEN, externalApiService.getCircuitBreaker().getState());
+        assertEquals(ExternalApiHealthIndicator.DEGRADED,
+                new ExternalApiHealthIndicator(externalApiService).health().getStatus().getCode());
+    }
+
+    @Test
+    @DisplayName("Should serve the last good response when the upstream becomes slow")
+    void testSlowUpstream_FallsBackToLastGoodResponse() {
+        // Arrange: a good response fetched through RestTemplate
+        assertEquals(2, externalApiService.getAllPostsRestTemplate().size());
+        slowUpstream = true;
+
+        // Act: the WebClient cache has no entry yet, so it goes upstream and times out
+        long start = System.nanoTime();
+        List<ExternalDataDto> posts = externalApiService.getAllPostsWebClient().collectList().block();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertEquals(2, posts.size());
+        assertTrue(elapsedMillis < 1_900, "fallback should not wait for the slow upstream: " + elapsedMillis + " ms");
+    }
+
+    @Test
+    @DisplayName("A streamed list should not be cut off while its posts keep arriving within the call timeout")
+    void testWebClientStream_TimeoutAppliesBetweenPosts() {
+        // Act
+        long start = System.nanoTime();
+        List<ExternalDataDto> posts = externalApiService.getPostsByUserIdWebClient(5L).collectList().block();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertEquals(List.of("first", "post-2", "post-3", "post-4"), posts.stream().map(ExternalDataDto::getTitle).toList());
+        assertTrue(elapsedMillis > 1000, "the list should take longer than the call timeout, took " + elapsedMillis);
+    }
+
+    @Test
+    @DisplayName("Should refuse calls beyond the bulkhead limit instead of queueing them")
+    void testBulkhead_RefusesExcessConcurrentCalls() throws Exception {
+        // Arrange: 4 calls may be in flight; the upstream holds each one for 2 s
+        slowUpstream = true;
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> calls = new ArrayList<>();
+        for (long userId = 1; userId <= 8; userId++) {
+            long id = userId;
+            calls.add(() -> {
+                try {
+                    externalApiService.getPostsByUserIdRestTemplate(id);
+                    return false;
+                } catch (ExternalApiUnavailableException e) {
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            });
+        }
+
+        // Act
+        List<Future<Boolean>> results = callers.invokeAll(calls);
+        callers.shutdown();
+
+        // Assert
+        long refused = 0;
+        for (Future<Boolean> result : results) {
+            refused += result.get() ? 1 : 0;
+        }
+        long upstream = upstreamCalls.keySet().stream().filter(key -> key.contains("userId=")).count();
+        assertTrue(upstream <= 4, "at most 4 calls may reach the upstream, got " + upstream);
+        assertTrue(refused >= 4, "expected the excess calls to be refused, got " + refused);
+    }
+
+    private void handlePosts(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String query = exchange.getRequestURI().getQuery();
+        upstreamCalls.computeIfAbsent(query == null ? path : path + "?" + query, key -> new AtomicInteger())
+                .incrementAndGet();
+
+        List<Long> ids = new ArrayList<>();
+        if (path.startsWith("/posts/")) {
+            ids.add(Long.valueOf(path.substring("/posts/".length())));
+        } else if (query != null && query.startsWith("id=")) {
+            for (String param : query.split("&")) {
+                ids.add(Long.valueOf(param.substring("id=".length())));
+            }
+        }
+        if ("userId=5".equals(query)) {
+            tricklePosts(exchange);
+            return;
+        }
+        if (slowUpstream || ids.contains(999L)) {
+            sleep(2_000);
+        } else if (ids.contains(3L) || "userId=3".equals(query)) {
+            sleep(200);
+        }
+
+        String body;
+        if (path.startsWith("/posts/")) {
+            body = post(ids.get(0));
+        } else if (!ids.isEmpty()) {
+            body = "[" + String.join(",", ids.stream().map(this::post).toList()) + "]";
+        } else {
+            body = "[" + post(1L) + "," + post(2L) + "]";
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Four posts 400 ms apart: each gap is within the 500 ms read and 1000 ms call timeouts, the whole list is not
+    private void tricklePosts(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (long id = 1; id <= 4; id++) {
+                out.write(((id == 1 ? "[" : ",") + post(id)).getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                if (id < 4) {
+                    sleep(400);
+                }
+            }
+            out.write("]".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private String post(Long id) {
+        String title = id == 1L ? firstTitle : "post-" + id;
+        return "{\"id\":" + id + ",\"title\":\"" + title + "\",\"body\":\"b\",\"userId\":7}";
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Timer upstreamTimer(String client, String endpoint) {
+        return meterRegistry.get("external.api.upstream")
+                .tags("client", client, "endpoint", endpoint, "outcome", "success")
+                .timer();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.dto.ExternalDataDto;
+
+@DisplayName("PostBatchLoader Tests")
+class PostBatchLoaderTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<List<Long>> fetchedBatches = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should fetch ids requested within one window with a single call and share duplicate ids")
+    void testLoad_BatchesWithinWindow() throws Exception {
+        // Arrange
+        PostBatchLoader loader = loader(50, Duration.ofMillis(50));
+
+        // Act
+        CompletableFuture<ExternalDataDto> first = loader.load(1L);
+        CompletableFuture<ExternalDataDto> second = loader.load(2L);
+        CompletableFuture<ExternalDataDto> duplicate = loader.load(1L);
+
+        // Assert
+        assertSame(first, duplicate);
+        assertEquals("post-1", first.get(1, TimeUnit.SECONDS).getTitle());
+        assertEquals("post-2", second.get(1, TimeUnit.SECONDS).getTitle());
+        assertEquals(List.of(List.of(1L, 2L)), fetchedBatches);
+    }
+
+    @Test
+    @DisplayName("Should fetch immediately once the batch is full instead of waiting for the window")
+    void testLoad_FullBatchDispatchesImmediately() throws Exception {
+        // Arrange
+        PostBatchLoader loader = loader(2, Duration.ofSeconds(10));
+
+        // Act
+        CompletableFuture<ExternalDataDto> first = loader.load(1L);
+        CompletableFuture<ExternalDataDto> second = loader.load(2L);
+        CompletableFuture<ExternalDataDto> third = loader.load(3L);
+
+        // Assert
+        assertEquals("post-1", first.get(1, TimeUnit.SECONDS).getTitle());
+        assertEquals("post-2", second.get(1, TimeUnit.SECONDS).getTitle());
+        assertFalse(third.isDone());
+        assertEquals(List.of(List.of(1L, 2L)), fetchedBatches);
+    }
+
+    @Test
+    @DisplayName("Should fail only the ids missing from the response")
+    void testLoad_MissingId() throws Exception {
+        // Arrange
+        PostBatchLoader loader = loader(50, Duration.ofMillis(10));
+
+        // Act
+        CompletableFuture<ExternalDataDto> found = loader.load(1L);
+        CompletableFuture<ExternalDataDto> missing = loader.load(404L);
+
+        // Assert
+        assertEquals("post-1", found.get(1, TimeUnit.SECONDS).getTitle());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> missing.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(NoSuchElementException.class, e.getCause());
+    }
+
+    @Test
+    @DisplayName("Should fail every caller of a batch whose fetch failed")
+    void testLoad_FetchFailure() {
+        // Arrange
+        PostBatchLoader loader = new PostBatchLoader("test",
+                ids -> CompletableFuture.failedFuture(new IllegalStateException("upstream down")),
+                50, Duration.ofMillis(10), scheduler);
+
+        // Act
+        CompletableFuture<ExternalDataDto> first = loader.load(1L);
+        CompletableFuture<ExternalDataDto> second = loader.load(2L);
+
+        // Assert
+        for (CompletableFuture<ExternalDataDto> future : List.of(first, second)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+    }
+
+    // Fetcher that records each batch and knows every id except 404
+    private PostBatchLoader loader(int maxBatchSize, Duration window) {
+        return new PostBatchLoader("test", ids -> {
+            synchronized (fetchedBatches) {
+                fetchedBatches.add(List.copyOf(ids));
+            }
+            List<ExternalDataDto> posts = ids.stream()
+                    .filter(id -> id != 404L)
+                    .map(id -> new ExternalDataDto(id, "post-" + id, "b", 7L))
+                    .toList();
+            return CompletableFuture.completedFuture(posts);
+        }, maxBatchSize, window, scheduler);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.demo.dto.BulkItemResult;
+import com.example.demo.dto.MarksRequest;
+import com.example.demo.model.Assignment;
+import com.example.demo.model.Role;
+import com.example.demo.model.Solution;
+import com.example.demo.model.User;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SolutionGradingService.class)
+@DisplayName("SolutionGradingService Tests")
+class SolutionGradingServiceTest {
+
+    @Autowired
+    private SolutionGradingService solutionGradingService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoBean
+    private AssignmentStatisticsService assignmentStatisticsService;
+
+    @Test
+    @DisplayName("Should update existing solutions and report missing ids per item")
+    void testGradeAll_MixedResults() {
+        // Arrange
+        Solution solution = persistSolution();
+
+        List<MarksRequest> requests = Arrays.asList(
+                marksRequest(solution.getId(), 85),
+                marksRequest(999_999L, 70),
+                marksRequest(null, 50));
+
+        // Act
+        List<BulkItemResult> results = solutionGradingService.gradeAll(requests);
+
+        // Assert
+        assertEquals(BulkItemResult.Status.UPDATED, results.get(0).getStatus());
+        assertEquals(BulkItemResult.Status.NOT_FOUND, results.get(1).getStatus());
+        assertEquals(BulkItemResult.Status.INVALID, results.get(2).getStatus());
+
+        entityManager.clear();
+        assertEquals(85, entityManager.find(Solution.class, solution.getId()).getMarks());
+    }
+
+    @Test
+    @DisplayName("Should report previous marks to the statistics, including repeated ids in one request")
+    void testGradeAll_RecordsStatistics() {
+        // Arrange
+        Solution solution = persistSolution();
+        Long assignmentId = solution.getAssignment().getId();
+
+        // Act
+        solutionGradingService.gradeAll(Arrays.asList(
+                marksRequest(solution.getId(), 60),
+                marksRequest(solution.getId(), 75),
+                marksRequest(999_999L, 70)));
+
+        // Assert
+        verify(assignmentStatisticsService).recordMarks(eq(assignmentId), isNull(), eq(60));
+        verify(assignmentStatisticsService).recordMarks(assignmentId, 60, 75);
+        verify(assignmentStatisticsService, times(2)).recordMarks(anyLong(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should grade one solution and report the marks it replaced")
+    void testGrade_RecordsPreviousMarks() {
+        // Arrange
+        Solution solution = persistSolution();
+        Long assignmentId = solution.getAssignment().getId();
+
+        // Act
+        Optional<SolutionGradingService.GradedRow> first = solutionGradingService.grade(solution.getId(), 60);
+        Optional<SolutionGradingService.GradedRow> second = solutionGradingService.grade(solution.getId(), 75);
+        Optional<SolutionGradingService.GradedRow> missing = solutionGradingService.grade(999_999L, 70);
+
+        // Assert
+        assertEquals(new SolutionGradingService.GradedRow(assignmentId, null), first.orElseThrow());
+        assertEquals(new SolutionGradingService.GradedRow(assignmentId, 60), second.orElseThrow());
+        assertTrue(missing.isEmpty());
+        verify(assignmentStatisticsService).recordMarks(eq(assignmentId), isNull(), eq(60));
+        verify(assignmentStatisticsService).recordMarks(assignmentId, 60, 75);
+        verify(assignmentStatisticsService, times(2)).recordMarks(anyLong(), any(), any());
+
+        entityManager.clear();
+        assertEquals(75, entityManager.find(Solution.class, solution.getId()).getMarks());
+    }
+
+    private Solution persistSolution() {
+        Assignment assignment = new Assignment();
+        assignment.setTitle("Java Basics");
+        assignment.setQuestions(Arrays.asList("Q1"));
+        entityManager.persist(assignment);
+
+        User student = new User();
+        student.setUsername("student");
+        student.setEmail("student@example.com");
+        student.setPassword("encodedPassword");
+        student.setRole(Role.STUDENT);
+        entityManager.persist(student);
+
+        Solution solution = new Solution();
+        solution.setAssignment(assignment);
+        solution.setStudent(student);
+        solution.setAnswers(Arrays.asList("A1"));
+        entityManager.persist(solution);
+        entityManager.flush();
+        return solution;
+    }
+
+    private MarksRequest marksRequest(Long solutionId, Integer marks) {
+        MarksRequest request = new MarksRequest();
+        request.setSolutionId(solutionId);
+        request.setMarks(marks);
+        return request;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.demo.dto.BulkItemResult;
+import com.example.demo.dto.SolutionRequest;
+import com.example.demo.model.Assignment;
+import com.example.demo.model.Role;
+import com.example.demo.model.Solution;
+import com.example.demo.model.User;
+import com.example.demo.service.SubmissionJournal.PendingSubmission;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SolutionSubmissionService.class)
+@DisplayName("SolutionSubmissionService Tests")
+class SolutionSubmissionServiceTest {
+
+    @Autowired
+    private SolutionSubmissionService solutionSubmissionService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoBean
+    private AssignmentStatisticsService assignmentStatisticsService;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should store valid items and report unknown assignments per item")
+    void testSubmitAll_MixedResults() {
+        // Arrange
+        Assignment assignment = new Assignment();
+        assignment.setTitle("Java Basics");
+        assignment.setQuestions(Arrays.asList("Q1"));
+        entityManager.persist(assignment);
+
+        User student = new User();
+        student.setUsername("student");
+        student.setEmail("student@example.com");
+        student.setPassword("encodedPassword");
+        student.setRole(Role.STUDENT);
+        entityManager.persist(student);
+        entityManager.flush();
+
+        List<SolutionRequest> requests = Arrays.asList(
+                solutionRequest(assignment.getId(), "A1"),
+                solutionRequest(999_999L, "A2"),
+                solutionRequest(null, "A3"),
+                solutionRequest(assignment.getId(), "A4"));
+
+        // Act
+        List<BulkItemResult> results = solutionSubmissionService.submitAll(student, requests);
+
+        // Assert
+        assertEquals(4, results.size());
+        assertEquals(BulkItemResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(BulkItemResult.Status.NOT_FOUND, results.get(1).getStatus());
+        assertEquals(BulkItemResult.Status.INVALID, results.get(2).getStatus());
+        assertEquals(BulkItemResult.Status.CREATED, results.get(3).getStatus());
+        assertNull(results.get(1).getId());
+        assertNotNull(results.get(3).getId());
+
+        entityManager.clear();
+        Solution stored = entityManager.find(Solution.class, results.get(3).getId());
+        assertEquals(Arrays.asList("A4"), stored.getAnswers());
+        assertEquals(student.getId(), stored.getStudent().getId());
+    }
+
+    @Test
+    @DisplayName("Should not store a replayed batch twice when it was committed but not acknowledged")
+    void testPersistPending_ReplayOfUnacknowledgedBatch() throws IOException {
+        // Arrange
+        Assignment assignment = new Assignment();
+        assignment.setTitle("Java Basics");
+        assignment.setQuestions(Arrays.asList("Q1"));
+        entityManager.persist(assignment);
+
+        User student = new User();
+        student.setUsername("student");
+        student.setEmail("student@example.com");
+        student.setPassword("encodedPassword");
+        student.setRole(Role.STUDENT);
+        entityManager.persist(student);
+        entityManager.flush();
+
+        Path file = tempDir.resolve("submissions.journal");
+        List<PendingSubmission> batch = Arrays.asList(
+                new PendingSubmission("r1", assignment.getId(), student.getId(), Arrays.asList("A1")),
+                new PendingSubmission("r2", assignment.getId(), student.getId(), Arrays.asList("A2")));
+        try (SubmissionJournal journal = new SubmissionJournal(file)) {
+            journal.recover();
+            batch.forEach(journal::append);
+            // The writer commits the batch and the process dies before it is acknowledged
+            solutionSubmissionService.persistPending(batch);
+        }
+
+        // Act
+        try (SubmissionJournal journal = new SubmissionJournal(file)) {
+            List<PendingSubmission> replayed = journal.recover();
+            assertEquals(2, replayed.size());
+            solutionSubmissionService.persistPending(replayed);
+        }
+
+        // Assert
+        entityManager.clear();
+        List<Solution> stored = entityManager.getEntityManager()
+                .createQuery("select s from Solution s order by s.receiptId", Solution.class)
+                .getResultList();
+        assertEquals(Arrays.asList("r1", "r2"), stored.stream().map(Solution::getReceiptId).toList());
+        verify(assignmentStatisticsService, times(1)).recordSubmissions(assignment.getId(), 2L);
+    }
+
+    private SolutionRequest solutionRequest(Long assignmentId, String answer) {
+        SolutionRequest request = new SolutionRequest();
+        request.setAssignmentId(assignmentId);
+        request.setAnswers(Arrays.asList(answer));
+        return request;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.example.demo.service.SubmissionJournal.PendingSubmission;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SubmissionIngestionService Tests")
+class SubmissionIngestionServiceTest {
+
+    @Mock
+    private SolutionSubmissionService solutionSubmissionService;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should start without waiting when the replay backlog exceeds the queue and the database is down")
+    void testStart_BacklogLargerThanQueue() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("submissions.journal");
+        try (SubmissionJournal journal = new SubmissionJournal(file)) {
+            journal.recover();
+            for (int i = 0; i < 5; i++) {
+                journal.append(new PendingSubmission("r" + i, 1L, 2, Arrays.asList("A" + i)));
+            }
+        }
+        doThrow(new DataAccessResourceFailureException("database down"))
+                .when(solutionSubmissionService).persistPending(anyList());
+        SubmissionIngestionService service = new SubmissionIngestionService(
+                solutionSubmissionService, true, 2, 2, file.toString(), 1024 * 1024);
+
+        // Act
+        assertTimeoutPreemptively(Duration.ofSeconds(5), service::start);
+
+        // Assert
+        try {
+            assertEquals(5, service.queuedCount());
+            assertTrue(service.submit(1L, 2, List.of("new")).isPresent());
+            assertTrue(service.submit(1L, 2, List.of("new")).isPresent());
+            assertTrue(service.submit(1L, 2, List.of("new")).isEmpty());
+        } finally {
+            service.stop();
+        }
+    }
+}
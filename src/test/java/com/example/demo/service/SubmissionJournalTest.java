@@ -0,0 +1,188 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.demo.service.SubmissionJournal.PendingSubmission;
+
+@DisplayName("SubmissionJournal Tests")
+class SubmissionJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should replay only submissions that were never acknowledged")
+    void testRecover_ReplaysUnacknowledged() throws IOException {
+        Path file = tempDir.resolve("submissions.journal");
+        PendingSubmission first = new PendingSubmission("r1", 1L, 2, Arrays.asList("a, b", "tab\there"));
+        PendingSubmission second = new PendingSubmission("r2", 1L, 3, List.of());
+        PendingSubmission third = new PendingSubmission("r3", 4L, 2, Arrays.asList(""));
+
+        try (SubmissionJournal journal = new SubmissionJournal(file)) {
+            journal.recover();
+            journal.append(first);
+            journal.append(second);
+            journal.append(third);
+            journal.acknowledge(List.of(second));
+        }
+
+        try (SubmissionJournal journal = new SubmissionJournal(file)) {
+            List<PendingSubmission> recovered = journal.recover();
+            assertEquals(List.of(first, third), recovered);
+        }
+    }
+
+    @Test
+    @DisplayName("Should truncate the journal once everything is acknowledged")
+    void testAcknowledge_CompactsWhenNothingOutstanding() throws IOException {
+        Path file = tempDir.resolve("submissions.journal");
+        PendingSubmission submission = new PendingSubmission("r1", 1L, 2, Arrays.asList("answer"));
+
+        try (SubmissionJournal journal = new SubmissionJournal(file)) {
+            journal.recover();
+            journal.append(submission);
+            journal.acknowledge(List.of(submission));
+        }
+
+        assertEquals(0, journalBytes());
+    }
+
+    @Test
+    @DisplayName("Should skip a torn trailing line and keep appending cleanly")
+    void testRecover_SkipsTornLine() throws IOException {
+        Path file = tempDir.resolve("submissions.journal");
+        PendingSubmission submission = new PendingSubmission("r1", 1L, 2, Arrays.asList("answer"));
+
+        try (SubmissionJournal journal = new SubmissionJournal(file)) {
+            journal.recover();
+            journal.append(submission);
+        }
+        Files.writeString(segments().get(segments().size() - 1), "S\tr2\t1", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        PendingSubmission next = new PendingSubmission("r3", 1L, 2, Arrays.asList("next"));
+        try (SubmissionJournal journal = new SubmissionJournal(file)) {
+            assertEquals(List.of(submission), journal.recover());
+            journal.append(next);
+        }
+
+        try (SubmissionJournal journal = new SubmissionJournal(file)) {
+            assertEquals(List.of(submission, next), journal.recover());
+        }
+    }
+
+    @Test
+    @DisplayName("Should rotate segments and delete the oldest ones once all their submissions are acknowledged")
+    void testAcknowledge_DeletesDrainedSegments() throws IOException {
+        Path file = tempDir.resolve("submissions.journal");
+        PendingSubmission first = new PendingSubmission("r1", 1L, 2, Arrays.asList("answer"));
+        PendingSubmission second = new PendingSubmission("r2", 1L, 2, Arrays.asList("answer"));
+        PendingSubmission third = new PendingSubmission("r3", 1L, 2, Arrays.asList("answer"));
+
+        // One byte per segment: every write starts a new one
+        try (SubmissionJournal journal = new SubmissionJournal(file, 1)) {
+            journal.recover();
+            journal.append(first);
+            journal.append(second);
+            journal.append(third);
+            journal.acknowledge(List.of(second));
+            // r1 is still outstanding in the oldest segment, so nothing can go yet
+            assertEquals(5, segments().size());
+
+            journal.acknowledge(List.of(first));
+            // Only r3's segment and the ones written after it are left
+            assertEquals(4, segments().size());
+        }
+
+        try (SubmissionJournal journal = new SubmissionJournal(file, 1)) {
+            assertEquals(List.of(third), journal.recover());
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay a journal written before segments and delete it once drained")
+    void testRecover_ReadsPreSegmentFile() throws IOException {
+        Path file = tempDir.resolve("submissions.journal");
+        Files.writeString(file, "S\tr1\t1\t2\t-\nS\tr2\t1\t3\t-\nA\tr2\n", StandardCharsets.UTF_8);
+        PendingSubmission first = new PendingSubmission("r1", 1L, 2, List.of());
+
+        try (SubmissionJournal journal = new SubmissionJournal(file)) {
+            assertEquals(List.of(first), journal.recover());
+            journal.acknowledge(List.of(first));
+        }
+
+        assertFalse(Files.exists(file));
+        assertEquals(0, journalBytes());
+    }
+
+    @Test
+    @DisplayName("Concurrent appends should share fsyncs")
+    void testAppend_GroupCommits() throws Exception {
+        Path file = tempDir.resolve("submissions.journal");
+        int threads = 16;
+        int perThread = 50;
+        ExecutorService callers = Executors.newFixedThreadPool(threads);
+
+        try (SubmissionJournal journal = new SubmissionJournal(file)) {
+            journal.recover();
+            List<Future<?>> appends = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                appends.add(callers.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        journal.append(new PendingSubmission("r" + thread + "-" + i, 1L, thread, List.of()));
+                    }
+                }));
+            }
+            for (Future<?> append : appends) {
+                append.get(30, TimeUnit.SECONDS);
+            }
+
+            assertTrue(journal.syncCount() < threads * perThread,
+                    "expected shared fsyncs but got " + journal.syncCount() + " for " + threads * perThread + " appends");
+        } finally {
+            callers.shutdownNow();
+        }
+
+        try (SubmissionJournal journal = new SubmissionJournal(file)) {
+            assertEquals(threads * perThread, journal.recover().size());
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("submissions.journal."))
+                    .sorted(Comparator.comparingLong(path -> Long.parseLong(
+                            path.getFileName().toString().substring("submissions.journal.".length()))))
+                    .toList();
+        }
+    }
+
+    private long journalBytes() throws IOException {
+        long bytes = 0;
+        for (Path segment : segments()) {
+            bytes += Files.size(segment);
+        }
+        return bytes;
+    }
+}
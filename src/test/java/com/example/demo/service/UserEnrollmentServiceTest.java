@@ -0,0 +1,270 @@
+package com.example.demo.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.demo.dto.BulkItemResult;
+import com.example.demo.dto.RegisterRequest;
+import com.example.demo.model.Role;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+
+import tools.jackson.databind.json.JsonMapper;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(UserEnrollmentService.class)
+// Small batches so a few rows span several chunks
+@TestPropertySource(properties = {
+        "enrollment.max-rows=" + UserEnrollmentServiceTest.MAX_ROWS,
+        "spring.jpa.properties.hibernate.jdbc.batch_size=4"
+})
+@DisplayName("UserEnrollmentService Tests")
+class UserEnrollmentServiceTest {
+
+    static final int MAX_ROWS = 10;
+
+    @Autowired
+    private UserEnrollmentService userEnrollmentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private CachingUserDetailsService userDetailsCache;
+
+    @TestConfiguration
+    static class JsonConfig {
+
+        @Bean
+        JsonMapper jsonMapper() {
+            return JsonMapper.builder().build();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hashed-" + invocation.getArgument(0));
+    }
+
+    @Test
+    @DisplayName("Should insert new users and report taken, repeated and invalid rows per item")
+    void testEnroll_MixedResults() throws IOException {
+        // Arrange
+        persistUser("taken", "taken@example.com");
+
+        List<RegisterRequest> requests = Arrays.asList(
+                new RegisterRequest("fresh", "fresh@example.com", "secret", null),
+                new RegisterRequest("taken", "other@example.com", "secret", null),
+                new RegisterRequest("another", "taken@example.com", "secret", null),
+                new RegisterRequest("fresh", "fresh2@example.com", "secret", null),
+                new RegisterRequest("nopassword", null, null, null),
+                new RegisterRequest("admin2", null, "secret", Role.ADMIN));
+
+        // Act
+        List<BulkItemResult> results = userEnrollmentService.enroll(rows(requests));
+
+        // Assert
+        assertEquals(BulkItemResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(BulkItemResult.Status.CONFLICT, results.get(1).getStatus());
+        assertEquals("Username already exists", results.get(1).getMessage());
+        assertEquals(BulkItemResult.Status.CONFLICT, results.get(2).getStatus());
+        assertEquals("Email already exists", results.get(2).getMessage());
+        assertEquals(BulkItemResult.Status.CONFLICT, results.get(3).getStatus());
+        assertEquals(BulkItemResult.Status.INVALID, results.get(4).getStatus());
+        assertEquals(BulkItemResult.Status.CREATED, results.get(5).getStatus());
+
+        User fresh = userRepository.findByUsername("fresh").orElseThrow();
+        assertEquals(fresh.getId().longValue(), results.get(0).getId());
+        assertEquals("hashed-secret", fresh.getPassword());
+        assertEquals(Role.STUDENT, fresh.getRole());
+        assertEquals(Role.ADMIN, userRepository.findByUsername("admin2").orElseThrow().getRole());
+        assertEquals(3, userRepository.count());
+        verify(passwordEncoder, times(2)).encode("secret");
+        verify(userDetailsCache).evict("fresh");
+    }
+
+    @Test
+    @DisplayName("Unique indexes should reject duplicates and name the offending column")
+    void testUniqueIndexes_DuplicateMessages() {
+        // Arrange
+        persistUser("taken", "taken@example.com");
+
+        // Act
+        DataIntegrityViolationException username = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(new User(null, "taken", "x", "new@example.com", Role.STUDENT)));
+        entityManager.clear();
+        DataIntegrityViolationException email = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(new User(null, "new", "x", "taken@example.com", Role.STUDENT)));
+
+        // Assert
+        assertEquals("Username already exists", UserEnrollmentService.duplicateMessage(username));
+        assertEquals("Email already exists", UserEnrollmentService.duplicateMessage(email));
+    }
+
+    @Test
+    @DisplayName("Should read CSV columns by header name and fail only the rows it cannot read")
+    void testEnroll_Csv() throws IOException {
+        // Act
+        List<BulkItemResult> results = userEnrollmentService.enroll(userEnrollmentService.readCsv(upload(
+                "password, username ,email,role\n"
+                + "secret,s1,s1@example.com,\n"
+                + "\n"
+                + "secret,t1,,teacher\n"
+                + "secret,a1,,admin\r\n")));
+
+        // Assert
+        assertEquals(List.of(BulkItemResult.Status.CREATED, BulkItemResult.Status.INVALID, BulkItemResult.Status.CREATED),
+                results.stream().map(BulkItemResult::getStatus).toList());
+        assertEquals("Unknown role 'teacher'", results.get(1).getMessage());
+        assertEquals("s1@example.com", userRepository.findByUsername("s1").orElseThrow().getEmail());
+        assertEquals(Role.ADMIN, userRepository.findByUsername("a1").orElseThrow().getRole());
+        assertThrows(IllegalArgumentException.class, () -> userEnrollmentService.readCsv(upload("name,email\ns1,x")));
+    }
+
+    @Test
+    @DisplayName("Should honour CSV quoting, keep password spaces and reject rows with shifted columns")
+    void testEnroll_CsvQuotingAndPasswords() throws IOException {
+        // Act
+        List<BulkItemResult> results = userEnrollmentService.enroll(userEnrollmentService.readCsv(upload(
+                "username,password,email\n"
+                + "q1,\"pa,ss\",q1@example.com\n"
+                + "q2,\"  say \"\"hi\"\"\nnow \",q2@example.com\n"
+                + " q3 , spaced ,\n"
+                + "q4,pa,ss,q4@example.com\n"
+                + "q5,\"open,q5@example.com\n"
+                + "q6,secret,\n")));
+
+        // Assert
+        assertEquals(List.of(BulkItemResult.Status.CREATED, BulkItemResult.Status.CREATED,
+                BulkItemResult.Status.CREATED, BulkItemResult.Status.INVALID, BulkItemResult.Status.INVALID),
+                results.stream().map(BulkItemResult::getStatus).toList());
+        assertEquals("Row has 4 values, the header names 3 columns", results.get(3).getMessage());
+        verify(passwordEncoder).encode("pa,ss");
+        verify(passwordEncoder).encode("  say \"hi\"\nnow ");
+        verify(passwordEncoder).encode(" spaced ");
+        assertEquals("q2@example.com", userRepository.findByUsername("q2").orElseThrow().getEmail());
+        assertEquals("hashed- spaced ", userRepository.findByUsername("q3").orElseThrow().getPassword());
+        // The unterminated quote swallowed the rest of the upload
+        assertTrue(userRepository.findByUsername("q6").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should bind NDJSON lines and JSON array elements one at a time")
+    void testEnroll_NdjsonAndJsonArray() throws IOException {
+        // Act
+        List<BulkItemResult> ndjson = userEnrollmentService.enroll(userEnrollmentService.readNdjson(upload(
+                "{\"username\":\"n1\",\"password\":\"secret\"}\n"
+                + "{\"username\":\n"
+                + "null\n"
+                + "{\"username\":\"n2\",\"password\":\"secret\",\"role\":\"ADMIN\"}\n")));
+        List<BulkItemResult> array = userEnrollmentService.enroll(userEnrollmentService.readJsonArray(upload(
+                "[{\"username\":\"j1\",\"password\":\"secret\"}, {\"username\":\"j2\"},"
+                + " {\"username\":\"j3\",\"password\":\"secret\",\"role\":\"TEACHER\"},"
+                + " {\"username\":\"j4\",\"password\":\"secret\"}]")));
+
+        // Assert
+        assertEquals(List.of(BulkItemResult.Status.CREATED, BulkItemResult.Status.INVALID,
+                BulkItemResult.Status.INVALID, BulkItemResult.Status.CREATED),
+                ndjson.stream().map(BulkItemResult::getStatus).toList());
+        assertEquals(Role.ADMIN, userRepository.findByUsername("n2").orElseThrow().getRole());
+        // An unbindable element ends a JSON array upload
+        assertEquals(List.of(BulkItemResult.Status.CREATED, BulkItemResult.Status.INVALID, BulkItemResult.Status.INVALID),
+                array.stream().map(BulkItemResult::getStatus).toList());
+        assertTrue(userRepository.findByUsername("j4").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should enroll across chunks and hash every password on the enrollment pool")
+    void testEnroll_ChunksAndHashingPool() throws IOException {
+        // Arrange
+        Set<String> hashingThreads = ConcurrentHashMap.newKeySet();
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> {
+            hashingThreads.add(Thread.currentThread().getName());
+            return "hashed-" + invocation.getArgument(0);
+        });
+        List<RegisterRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            requests.add(new RegisterRequest("bulk" + i, "bulk" + i + "@example.com", "secret", null));
+        }
+
+        // Act
+        List<BulkItemResult> results = userEnrollmentService.enroll(rows(requests));
+
+        // Assert
+        assertEquals(9, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == BulkItemResult.Status.CREATED));
+        assertEquals(9, userRepository.count());
+        assertTrue(hashingThreads.stream().allMatch(name -> name.startsWith("ForkJoinPool-")), hashingThreads.toString());
+    }
+
+    @Test
+    @DisplayName("Should stop reading past the row limit")
+    void testEnroll_RowLimit() throws IOException {
+        // Arrange
+        List<RegisterRequest> requests = new ArrayList<>();
+        for (int i = 0; i < MAX_ROWS + 5; i++) {
+            requests.add(new RegisterRequest("limit" + i, null, "secret", null));
+        }
+
+        // Act
+        List<BulkItemResult> results = userEnrollmentService.enroll(rows(requests));
+
+        // Assert
+        assertEquals(MAX_ROWS + 1, results.size());
+        assertEquals(BulkItemResult.Status.INVALID, results.get(MAX_ROWS).getStatus());
+        assertEquals(MAX_ROWS, userRepository.count());
+    }
+
+    private static UserEnrollmentService.EnrollmentRows rows(List<RegisterRequest> requests) {
+        Iterator<RegisterRequest> iterator = requests.iterator();
+        return () -> iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private static InputStream upload(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void persistUser(String username, String email) {
+        entityManager.persist(new User(null, username, "encodedPassword", email, Role.STUDENT));
+        entityManager.flush();
+    }
+}